@@ -537,15 +537,14 @@ public class Graph {
 			return null;
 		}
 		
-		boolean[] explorados;
 		ArrayList<Integer> queue;
 		Graph G = new Graph();
 		int i;
-		explorados = new boolean[S.getSize()];
-		for(i=0;i<explorados.length;i++) explorados[i]=false;
+		IdMap ids=IdMap.of(S.nodes.keySet());
+		boolean[] explorados = new boolean[ids.size()];
 		queue = new ArrayList<Integer>();
 		queue.add(n);
-		explorados[n]=true;
+		explorados[ids.indexOf(n)]=true;
 		G.addNode(n);
 		
 		while(queue.size() != 0) {
@@ -553,9 +552,9 @@ public class Graph {
 			queue.remove(0);
 			Set<Integer>neighbors=S.getNeighbors(i);
 			for (Integer value : neighbors) {
-				if(!explorados[value]) {
+				if(!explorados[ids.indexOf(value)]) {
 					G.linkNodes(i, value);
-					explorados[value]=true;
+					explorados[ids.indexOf(value)]=true;
 					queue.add(value);
 				}
 			}
@@ -586,8 +585,8 @@ public class Graph {
 		
 		int i;
 		int j;
-		boolean[] explorados = new boolean[S.getSize()];
-		for(i=0;i<explorados.length;i++) explorados[i]=false;
+		IdMap ids=IdMap.of(S.nodes.keySet());
+		boolean[] explorados = new boolean[ids.size()];
 		
 		ArrayList<Integer> visitados,por_visitar;
 		por_visitar = new ArrayList<Integer>();
@@ -604,16 +603,16 @@ public class Graph {
 			j = por_visitar.size()-1;
 			i = por_visitar.get(j);
 			por_visitar.remove(j);
-			if(explorados[i]) {
+			if(explorados[ids.indexOf(i)]) {
 				continue;
 			}
-			explorados[i]=true;
+			explorados[ids.indexOf(i)]=true;
 			visitados.add(i);
 			backwards=true;
 			
 			neighbors=S.getNeighbors(i);
 			for (Integer value : neighbors) {
-				if(!explorados[value]) {
+				if(!explorados[ids.indexOf(value)]) {
 					backwards=false;
 					por_visitar.add(value);
 				}
@@ -625,7 +624,7 @@ public class Graph {
 				visitados.remove(i);
 				neighbors=S.getNeighbors(j);
 				for (Integer value : neighbors) {
-					if(!explorados[value]) {
+					if(!explorados[ids.indexOf(value)]) {
 						backwards=false;
 					}
 				}
@@ -658,11 +657,11 @@ public class Graph {
 			return null;
 		}
 		Graph G = new Graph();
-		boolean [] explorados = new boolean[S.getSize()];
-		for(int i=0;i<explorados.length;i++) explorados[i]=false;
-		explorados[n]=true;
+		IdMap ids=IdMap.of(S.nodes.keySet());
+		boolean [] explorados = new boolean[ids.size()];
+		explorados[ids.indexOf(n)]=true;
 		G.addNode(n);
-		getDFSr(n,S,G,explorados);
+		getDFSr(n,S,G,ids,explorados);
 		return G;
 	}
 	
@@ -673,15 +672,16 @@ public class Graph {
 	 * @param n nodo raiz
 	 * @param S Grafo fuente
 	 * @param G Arbol BFS
-	 * @param explorados variable para saber los nodos explorados
+	 * @param ids indices de los nodos de S
+	 * @param explorados variable para saber los nodos explorados, por indice
 	 */
-	private static void getDFSr(int n,Graph S, Graph G, boolean[] explorados) {
+	private static void getDFSr(int n,Graph S, Graph G, IdMap ids, boolean[] explorados) {
 		Set<Integer>neighbors=S.getNeighbors(n);
 		for (Integer value : neighbors) {
-			if(!explorados[value]) {
-				explorados[value]=true;
+			if(!explorados[ids.indexOf(value)]) {
+				explorados[ids.indexOf(value)]=true;
 				G.linkNodes(n, value);
-				getDFSr(value,S,G,explorados);
+				getDFSr(value,S,G,ids,explorados);
 			}
 		}
 	}
@@ -0,0 +1,208 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Tabla que asigna a cada identificador externo de un nodo (int, long o String) un indice
+ * interno denso 0..n-1, en el orden en que se agregan. Con los indices, los algoritmos pueden
+ * usar arreglos primitivos (boolean[], int[], long[]) en lugar de tablas hash, aunque los
+ * identificadores del grafo no sean consecutivos, y traducir el resultado de vuelta con getId.
+ * Los identificadores numericos se guardan en una tabla hash de direccionamiento abierto
+ * sobre arreglos primitivos, sin objetos Integer.
+ */
+public class IdMap {
+
+	private long[] claves;   //identificador externo de cada casilla de la tabla
+	private int[] valores;   //indice+1 de cada casilla, 0 si esta vacia
+	private long[] externos; //identificador externo de cada indice
+	private String[] nombres; //nombre de cada indice, solo si se internaron Strings
+	private HashMap<String, Integer> porNombre;
+	private int n;
+
+	/**
+	 * Constructor
+	 */
+	public IdMap() {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * @param capacidad numero de identificadores esperado
+	 */
+	public IdMap(int capacidad) {
+		int t=Integer.highestOneBit(Math.max(4,capacidad)*2-1)*2;
+		claves=new long[t];
+		valores=new int[t];
+		externos=new long[Math.max(4,capacidad)];
+	}
+
+	/**
+	 * Funcion para crear la tabla con los identificadores de un conjunto de nodos
+	 * @param ids identificadores, por ejemplo getNodes() de un grafo
+	 * @return Instancia tipo IdMap con los indices en el orden de iteracion
+	 */
+	public static IdMap of(Iterable<Integer> ids) {
+		IdMap m=new IdMap();
+		for (int id : ids) {
+			m.intern(id);
+		}
+		return m;
+	}
+
+	private static int mezclar(long x) {
+		x^=x>>>33;
+		x*=0xff51afd7ed558ccdL;
+		x^=x>>>33;
+		return (int)x;
+	}
+
+	/**
+	 * Funcion para obtener el indice de un identificador, agregandolo si no existe
+	 * @param id identificador externo
+	 * @return indice interno
+	 */
+	public int intern(long id) {
+		int mascara=claves.length-1;
+		int i=mezclar(id) & mascara;
+		while(valores[i]!=0) {
+			if(claves[i]==id) {
+				return valores[i]-1;
+			}
+			i=(i+1) & mascara;
+		}
+		if(n==externos.length) {
+			externos=Arrays.copyOf(externos,n*2);
+			if(nombres!=null) {
+				nombres=Arrays.copyOf(nombres,n*2);
+			}
+		}
+		externos[n]=id;
+		claves[i]=id;
+		valores[i]=++n;
+		if(n*2>claves.length) {
+			crecer();
+		}
+		return n-1;
+	}
+
+	/**
+	 * Funcion para obtener el indice de un nombre, por ejemplo la etiqueta de un nodo en un archivo .gv,
+	 * agregandolo si no existe. Los nombres que son numeros enteros se tratan como identificadores numericos.
+	 * @param nombre identificador externo
+	 * @return indice interno
+	 */
+	public int intern(String nombre) {
+		try {
+			return intern(Long.parseLong(nombre.trim()));
+		} catch (NumberFormatException e) {
+			//no es numerico, se guarda por nombre
+		}
+		if(porNombre==null) {
+			porNombre=new HashMap<>();
+			nombres=new String[externos.length];
+		}
+		Integer i=porNombre.get(nombre);
+		if(i!=null) {
+			return i;
+		}
+		if(n==externos.length) {
+			externos=Arrays.copyOf(externos,n*2);
+			nombres=Arrays.copyOf(nombres,n*2);
+		}
+		externos[n]=Long.MIN_VALUE;
+		nombres[n]=nombre;
+		porNombre.put(nombre,n);
+		return n++;
+	}
+
+	private void crecer() {
+		long[] c=claves;
+		int[] v=valores;
+		claves=new long[c.length*2];
+		valores=new int[c.length*2];
+		int mascara=claves.length-1;
+		for(int j=0;j<c.length;j++) {
+			if(v[j]!=0) {
+				int i=mezclar(c[j]) & mascara;
+				while(valores[i]!=0) {
+					i=(i+1) & mascara;
+				}
+				claves[i]=c[j];
+				valores[i]=v[j];
+			}
+		}
+	}
+
+	/**
+	 * Funcion para obtener el indice de un identificador sin agregarlo
+	 * @param id identificador externo
+	 * @return indice interno, o -1 si no existe
+	 */
+	public int indexOf(long id) {
+		int mascara=claves.length-1;
+		int i=mezclar(id) & mascara;
+		while(valores[i]!=0) {
+			if(claves[i]==id) {
+				return valores[i]-1;
+			}
+			i=(i+1) & mascara;
+		}
+		return -1;
+	}
+
+	/**
+	 * Funcion para obtener el indice de un nombre sin agregarlo
+	 * @param nombre identificador externo
+	 * @return indice interno, o -1 si no existe
+	 */
+	public int indexOf(String nombre) {
+		try {
+			return indexOf(Long.parseLong(nombre.trim()));
+		} catch (NumberFormatException e) {
+			//no es numerico, se busca por nombre
+		}
+		if(porNombre==null) {
+			return -1;
+		}
+		Integer i=porNombre.get(nombre);
+		return i==null ? -1 : i;
+	}
+
+	/**
+	 * Funcion para obtener el identificador externo de un indice
+	 * @param indice indice interno
+	 * @return identificador, o Long.MIN_VALUE si el indice se agrego por nombre
+	 */
+	public long getId(int indice) {
+		return externos[indice];
+	}
+
+	/**
+	 * Funcion para obtener el identificador externo de un indice como int
+	 * @param indice indice interno
+	 * @return identificador
+	 */
+	public int getIntId(int indice) {
+		return (int)externos[indice];
+	}
+
+	/**
+	 * Funcion para obtener el identificador externo de un indice como texto
+	 * @param indice indice interno
+	 * @return nombre con el que se agrego, o el identificador numerico
+	 */
+	public String getName(int indice) {
+		if(nombres!=null && nombres[indice]!=null) {
+			return nombres[indice];
+		}
+		return Long.toString(externos[indice]);
+	}
+
+	/**
+	 * Funcion para obtener el numero de identificadores
+	 * @return numero de indices asignados
+	 */
+	public int size() {
+		return n;
+	}
+}
@@ -0,0 +1,69 @@
+import java.util.Set;
+
+/**
+ * Interfaz con las consultas de solo lectura que necesitan los algoritmos de
+ * recorrido (BFS, DFS, Dijkstra, Prim, componente conectado). La implementan
+ * Graph y las representaciones alternativas del grafo, de modo que los mismos
+ * algoritmos pueden ejecutarse sobre cualquiera de ellas.
+ */
+public interface AdjacencySource {
+
+	/**
+	 * Funcion para saber si el grafo es dirigido
+	 * @return true si el grafo es dirigido
+	 */
+	boolean isDirigido();
+
+	/**
+	 * Funcion para obtener el numero de nodos del grafo
+	 * @return numero de nodos
+	 */
+	int getSize();
+
+	/**
+	 * Funcion para obtener los identificadores de todos los nodos del grafo
+	 * @return conjunto (solo lectura) con los identificadores de los nodos
+	 */
+	Set<Integer> getNodes();
+
+	/**
+	 * Funcion para obtener las aristas que salen de un nodo
+	 * @param id identificador del nodo
+	 * @return conjunto de aristas id-&gt;b
+	 */
+	Set<Edge> getNeighbors(int id);
+
+	/**
+	 * Funcion para comprobar si existe un nodo
+	 * @param id identificador del nodo
+	 * @return true si existe
+	 */
+	boolean existsNode(int id);
+
+	/**
+	 * Funcion para comprobar si existe la conexion a-&gt;b
+	 * @param a nodo a
+	 * @param b nodo b
+	 * @return true si existe
+	 */
+	boolean isLinked(int a,int b);
+
+	/**
+	 * Funcion para obtener el peso de la arista a-&gt;b
+	 * @param a nodo a
+	 * @param b nodo b
+	 * @return peso de la arista, o Integer.MAX_VALUE si no existe
+	 */
+	int getW(int a,int b);
+
+	/**
+	 * Funcion para obtener la tabla de indices densos de los nodos, para indexar arreglos
+	 * primitivos en los recorridos. Por defecto se construye una tabla nueva en cada llamada;
+	 * Graph la guarda y la mantiene al agregar nodos, y CSRGraph, OffHeapGraph y CompressedGraph
+	 * regresan una vista de sus identificadores ordenados (IdMap.sorted).
+	 * @return Instancia tipo IdMap con un indice por nodo (no debe modificarse)
+	 */
+	default IdMap getIdMap() {
+		return IdMap.of(getNodes());
+	}
+}
@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Clase para ejecutar lotes de experimentos sobre varios archivos de grafos.
+ * Cada archivo se carga una sola vez y sobre el se ejecutan las etapas registradas,
+ * que forman un DAG: cada etapa depende del grafo cargado o del resultado de otra etapa
+ * registrada antes. Las etapas independientes se reparten entre los nucleos disponibles;
+ * los archivos se leen y los resultados se escriben con GraphIO, en otros hilos, mientras se
+ * calculan los siguientes. Se procesan a lo mas tantos archivos a la vez como hilos, y el grafo
+ * y los resultados de cada archivo se sueltan en cuanto terminan de escribirse, asi que la memoria
+ * crece con el numero de hilos y no con el de archivos. Al terminar se imprime el tiempo acumulado
+ * de cada etapa (para Carga y Escritura incluye la espera en la cola de GraphIO).
+ */
+public class BatchRunner {
+
+	private static final String CARGA="Carga";
+	private static final String ESCRITURA="Escritura";
+
+	private String path;
+	private int hilos;
+	private List<String[]> entradas = new ArrayList<>();
+	private List<Etapa> etapas = new ArrayList<>();
+	private ConcurrentHashMap<String, LongAdder> tiempos = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<String, LongAdder> llamadas = new ConcurrentHashMap<>();
+
+	/**
+	 * Etapa del lote
+	 */
+	private static class Etapa {
+		String nombre;
+		String depende;
+		Function<Graph, Graph> algoritmo;
+		String prefijo;
+		boolean peso;
+	}
+
+	/**
+	 * Constructor que usa un hilo de calculo por cada procesador
+	 * @param path directorio de los archivos de entrada y salida
+	 */
+	public BatchRunner(String path) {
+		this(path,Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor
+	 * @param path directorio de los archivos de entrada y salida
+	 * @param hilos numero de hilos para cargar los grafos y ejecutar las etapas
+	 */
+	public BatchRunner(String path,int hilos) {
+		this.path=path;
+		this.hilos=Math.max(1,hilos);
+	}
+
+	/**
+	 * Funcion para agregar un archivo de entrada
+	 * @param filename nombre del archivo dentro del directorio
+	 * @param nombre nombre con el que se guardan los resultados, precedido por el prefijo de cada etapa
+	 */
+	public void addInput(String filename,String nombre) {
+		entradas.add(new String[] {filename,nombre});
+	}
+
+	/**
+	 * Funcion para agregar una etapa que no imprime el peso del resultado
+	 * @see #addStage(String, String, Function, String, boolean)
+	 */
+	public boolean addStage(String nombre,String depende,Function<Graph, Graph> algoritmo,String prefijo) {
+		return addStage(nombre,depende,algoritmo,prefijo,false);
+	}
+
+	/**
+	 * Funcion para agregar una etapa al lote
+	 * @param nombre nombre unico de la etapa
+	 * @param depende nombre de la etapa de la cual toma su grafo, o null para usar el grafo cargado
+	 * @param algoritmo funcion que se aplica al grafo
+	 * @param prefijo prefijo del archivo donde se guarda el resultado, o null para no guardarlo
+	 * @param peso si es true, se imprime el peso del grafo resultante
+	 * @return true si la etapa se agrego, false si el nombre se repite o la dependencia no existe
+	 */
+	public boolean addStage(String nombre,String depende,Function<Graph, Graph> algoritmo,String prefijo,boolean peso) {
+		if(nombre.equals(CARGA) || nombre.equals(ESCRITURA) || buscar(nombre)!=null) {
+			System.err.println("La etapa ya existe: "+nombre);
+			return false;
+		}
+		if(depende!=null && buscar(depende)==null) {
+			System.err.println("La etapa "+nombre+" depende de una etapa que no existe: "+depende);
+			return false;
+		}
+		Etapa e=new Etapa();
+		e.nombre=nombre;
+		e.depende=depende;
+		e.algoritmo=algoritmo;
+		e.prefijo=prefijo;
+		e.peso=peso;
+		etapas.add(e);
+		return true;
+	}
+
+	private Etapa buscar(String nombre) {
+		for (Etapa e : etapas) {
+			if(e.nombre.equals(nombre)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Ejecuta una tarea y acumula su tiempo en la etapa indicada.
+	 * Si la tarea falla se reporta el error y se regresa null, y las etapas que dependen de ella no se ejecutan.
+	 */
+	private <T> T medir(String etapa,String archivo,Supplier<T> tarea) {
+		long t=System.nanoTime();
+		T res=null;
+		try {
+			res=tarea.get();
+		} catch (RuntimeException e) {
+			System.err.println("Error en la etapa "+etapa+" con "+archivo+": "+e);
+		}
+		acumular(etapa,t);
+		return res;
+	}
+
+	/**
+	 * Espera una lectura o escritura de GraphIO y acumula su tiempo en la etapa indicada.
+	 * Si falla se reporta la GraphIOException y el futuro regresado termina con null.
+	 */
+	private <T> CompletableFuture<T> medirIO(String etapa,CompletableFuture<T> operacion) {
+		long t=System.nanoTime();
+		return operacion.handle((res,e) -> {
+			if(e!=null) {
+				System.err.println(e.getMessage()+(e.getCause()!=null ? ": "+e.getCause() : ""));
+			}
+			acumular(etapa,t);
+			return e==null ? res : null;
+		});
+	}
+
+	private void acumular(String etapa,long inicio) {
+		tiempos.computeIfAbsent(etapa,k -> new LongAdder()).add(System.nanoTime()-inicio);
+		llamadas.computeIfAbsent(etapa,k -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Funcion para ejecutar todas las etapas sobre todos los archivos de entrada.
+	 * Regresa cuando todos los resultados estan escritos en disco.
+	 */
+	public void run() {
+		tiempos.clear();
+		llamadas.clear();
+		ExecutorService calculo=Executors.newFixedThreadPool(hilos);
+		List<CompletableFuture<Void>> enCurso=new ArrayList<>(); //un futuro por archivo sin terminar
+		long inicio=System.nanoTime();
+		try (GraphIO io=new GraphIO(hilos)) {
+			for (String[] entrada : entradas) {
+				while(enCurso.size()>=hilos) {
+					CompletableFuture.anyOf(enCurso.toArray(new CompletableFuture<?>[0])).join();
+					enCurso.removeIf(CompletableFuture::isDone);
+				}
+				enCurso.add(procesar(io,calculo,entrada));
+			}
+			CompletableFuture.allOf(enCurso.toArray(new CompletableFuture<?>[0])).join();
+		} finally {
+			calculo.shutdown();
+		}
+		printSummary(System.nanoTime()-inicio);
+	}
+
+	/**
+	 * Encadena la carga, las etapas y las escrituras de un archivo.
+	 * Los futuros de las etapas solo quedan referenciados desde aqui, asi que el grafo cargado y los
+	 * resultados pueden liberarse cuando termina el futuro regresado, que nunca termina con error.
+	 */
+	private CompletableFuture<Void> procesar(GraphIO io,ExecutorService calculo,String[] entrada) {
+		List<CompletableFuture<?>> pendientes=new ArrayList<>();
+		CompletableFuture<Graph> carga=medirIO(CARGA,io.loadAsync(path+entrada[0]));
+		HashMap<String, CompletableFuture<Graph>> resultados=new HashMap<>();
+		for (Etapa e : etapas) {
+			CompletableFuture<Graph> fuente= e.depende==null ? carga : resultados.get(e.depende);
+			CompletableFuture<Graph> f=fuente.thenApplyAsync(
+					g -> g==null ? null : medir(e.nombre,entrada[0],() -> e.algoritmo.apply(g)),calculo);
+			resultados.put(e.nombre,f);
+			pendientes.add(f);
+			if(e.prefijo!=null) {
+				String filename=path+e.prefijo+entrada[1];
+				pendientes.add(f.thenCompose(g -> {
+					if(g==null) {
+						return CompletableFuture.completedFuture(null);
+					}
+					if(e.peso) {
+						System.out.println("Peso del arbol "+filename+" = "+g.getGraphWeight());
+					}
+					return medirIO(ESCRITURA,io.saveAsync(g,filename)).thenAccept(p -> {
+						if(p!=null) {
+							System.out.println("Grafo guardado correctamente como "+filename);
+						}
+					});
+				}));
+			}
+		}
+		return CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0])).handle((v,ex) -> {
+			if(ex!=null) {
+				System.err.println("Error al procesar "+entrada[0]+": "+ex);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Imprime el numero de llamadas y el tiempo acumulado de cada etapa
+	 */
+	private void printSummary(long total) {
+		System.out.println("Etapa\tllamadas\ttiempo (ms)\tpromedio (ms)");
+		List<String> orden=new ArrayList<>();
+		orden.add(CARGA);
+		for (Etapa e : etapas) {
+			orden.add(e.nombre);
+		}
+		orden.add(ESCRITURA);
+		for (String etapa : orden) {
+			LongAdder c=llamadas.get(etapa);
+			if(c==null) {
+				continue;
+			}
+			double ms=tiempos.get(etapa).sum()/1e6;
+			System.out.printf("%s\t%d\t%.2f\t%.2f%n",etapa,c.sum(),ms,ms/c.sum());
+		}
+		System.out.printf("Tiempo total: %.2f ms con %d hilos%n",total/1e6,hilos);
+	}
+
+	/**
+	 * Funcion para obtener el tiempo acumulado de una etapa en la ultima ejecucion
+	 * @param etapa nombre de la etapa ("Carga" y "Escritura" para la lectura y escritura de archivos)
+	 * @return tiempo en nanosegundos
+	 */
+	public long getStageTime(String etapa) {
+		LongAdder t=tiempos.get(etapa);
+		return t==null ? 0 : t.sum();
+	}
+}
@@ -0,0 +1,294 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Centralidad de intermediacion (betweenness) con el algoritmo de Brandes sobre un CSRGraph.
+ * Desde cada fuente se hace un BFS (sin pesos) o Dijkstra (con los pesos de las aristas),
+ * contando los caminos mas cortos, y despues se acumulan las dependencias recorriendo los
+ * nodos en orden inverso de distancia. Las fuentes se reparten entre los hilos; cada hilo
+ * tiene sus propios arreglos de trabajo y su propio acumulador, que se suman al final.
+ * Para grafos grandes, approximate toma una muestra de fuentes de tamano suficiente para
+ * garantizar un error maximo con la probabilidad que se pida.
+ */
+public class Betweenness {
+
+	private final CSRGraph g;
+	private final int n;
+	private final int[] off;
+	private final int[] tg;
+	private final int[] wt;
+	private int muestras;
+
+	/**
+	 * Constructor que copia el grafo a formato CSR
+	 * @param g grafo
+	 */
+	public Betweenness(AdjacencySource g) {
+		this(g instanceof CSRGraph ? (CSRGraph)g : CSRGraph.from(g));
+	}
+
+	/**
+	 * Constructor
+	 * @param g grafo en formato CSR
+	 */
+	public Betweenness(CSRGraph g) {
+		this.g=g;
+		n=g.getSize();
+		off=g.getOffsets();
+		tg=g.getTargets();
+		wt=g.getWeights();
+	}
+
+	/**
+	 * Arreglos de trabajo de un hilo
+	 */
+	private class Estado {
+		long[] dist=new long[n];
+		double[] sigma=new double[n];
+		double[] delta=new double[n];
+		int[] orden=new int[n];   //nodos en el orden en que se fijo su distancia
+		long[] heap=new long[16]; //distancia de cada entrada del heap
+		int[] heapNodo=new int[16];
+		double[] acumulado=new double[n];
+		long aristas;
+
+		Estado() {
+			Arrays.fill(dist,-1);
+		}
+
+		/**
+		 * Brandes desde la fuente s: suma a acumulado la dependencia de cada nodo multiplicada por escala
+		 */
+		void fuente(int s,boolean ponderado,double escala) {
+			int cuantos= ponderado ? dijkstra(s) : bfs(s);
+			for(int i=cuantos-1;i>=0;i--) {
+				int v=orden[i];
+				double dv=0;
+				for(int k=off[v];k<off[v+1];k++) {
+					int w=tg[k];
+					if(dist[w]==dist[v]+(ponderado ? wt[k] : 1)) {
+						dv+=sigma[v]/sigma[w]*(1+delta[w]);
+					}
+				}
+				aristas+=off[v+1]-off[v];
+				delta[v]=dv;
+				if(v!=s) {
+					acumulado[v]+=dv*escala;
+				}
+			}
+			for(int i=0;i<cuantos;i++) {
+				int v=orden[i];
+				dist[v]=-1;
+				sigma[v]=0;
+				delta[v]=0;
+			}
+		}
+
+		int bfs(int s) {
+			dist[s]=0;
+			sigma[s]=1;
+			orden[0]=s;
+			int cuantos=1;
+			for(int i=0;i<cuantos;i++) {
+				int v=orden[i];
+				for(int k=off[v];k<off[v+1];k++) {
+					int w=tg[k];
+					if(dist[w]<0) {
+						dist[w]=dist[v]+1;
+						orden[cuantos++]=w;
+					}
+					if(dist[w]==dist[v]+1) {
+						sigma[w]+=sigma[v];
+					}
+				}
+			}
+			return cuantos;
+		}
+
+		int dijkstra(int s) {
+			int tam=0;
+			int cuantos=0;
+			dist[s]=0;
+			sigma[s]=1;
+			tam=push(tam,0,s);
+			while(tam>0) {
+				long d=heap[0];
+				int v=heapNodo[0];
+				tam=pop(tam);
+				if(d>dist[v]) { //entrada vieja: solo se agrega al heap cuando la distancia mejora
+					continue;
+				}
+				orden[cuantos++]=v;
+				for(int k=off[v];k<off[v+1];k++) {
+					int w=tg[k];
+					long nd=d+wt[k];
+					if(dist[w]<0 || nd<dist[w]) {
+						dist[w]=nd;
+						sigma[w]=sigma[v];
+						tam=push(tam,nd,w);
+					}else if(nd==dist[w]) {
+						sigma[w]+=sigma[v];
+					}
+				}
+			}
+			return cuantos;
+		}
+
+		private int push(int tam,long d,int v) {
+			if(tam==heap.length) {
+				heap=Arrays.copyOf(heap,tam*2);
+				heapNodo=Arrays.copyOf(heapNodo,tam*2);
+			}
+			int i=tam;
+			while(i>0) {
+				int p=(i-1)/2;
+				if(heap[p]<=d) {
+					break;
+				}
+				heap[i]=heap[p];
+				heapNodo[i]=heapNodo[p];
+				i=p;
+			}
+			heap[i]=d;
+			heapNodo[i]=v;
+			return tam+1;
+		}
+
+		private int pop(int tam) {
+			tam--;
+			long d=heap[tam];
+			int v=heapNodo[tam];
+			int i=0;
+			while(true) {
+				int h=2*i+1;
+				if(h>=tam) {
+					break;
+				}
+				if(h+1<tam && heap[h+1]<heap[h]) {
+					h++;
+				}
+				if(heap[h]>=d) {
+					break;
+				}
+				heap[i]=heap[h];
+				heapNodo[i]=heapNodo[h];
+				i=h;
+			}
+			heap[i]=d;
+			heapNodo[i]=v;
+			return tam;
+		}
+	}
+
+	/**
+	 * Ejecuta Brandes desde cada fuente en paralelo y suma los acumuladores de los hilos
+	 */
+	private double[] calcular(int[] fuentes,boolean ponderado,double escala,String algoritmo) {
+		if(ponderado) {
+			for (int w : wt) {
+				if(w<=0) {
+					System.err.println("Los pesos de las aristas deben ser positivos");
+					return null;
+				}
+			}
+		}
+		long inicio=Metrics.start();
+		int hilos=Math.max(1,Math.min(Runtime.getRuntime().availableProcessors(),fuentes.length));
+		AtomicInteger siguiente=new AtomicInteger();
+		AtomicLong aristas=new AtomicLong();
+		double[][] parciales=new double[hilos][];
+		IntStream.range(0,hilos).parallel().forEach(h -> {
+			Estado e=new Estado();
+			int i;
+			while((i=siguiente.getAndIncrement())<fuentes.length) {
+				e.fuente(fuentes[i],ponderado,escala);
+			}
+			parciales[h]=e.acumulado;
+			aristas.addAndGet(e.aristas);
+		});
+		double[] res=new double[n];
+		for (double[] p : parciales) {
+			for(int v=0;v<n;v++) {
+				res[v]+=p[v];
+			}
+		}
+		Metrics.count(algoritmo,"fuentes",fuentes.length);
+		Metrics.count(algoritmo,"aristas_revisadas",aristas.get());
+		Metrics.time(algoritmo,inicio);
+		return res;
+	}
+
+	/**
+	 * Funcion para calcular la intermediacion exacta, usando todos los nodos como fuente
+	 * @param ponderado si es true las distancias usan los pesos de las aristas (deben ser positivos),
+	 * 			si es false cada arista mide 1
+	 * @param normalizado si es true se divide entre (n-1)(n-2), el numero de pares de otros nodos
+	 * @return intermediacion de cada nodo por indice interno, o null si hay pesos no positivos
+	 */
+	public double[] exact(boolean ponderado,boolean normalizado) {
+		int[] fuentes=new int[n];
+		for(int i=0;i<n;i++) {
+			fuentes[i]=i;
+		}
+		muestras=n;
+		double escala;
+		if(normalizado) {
+			escala= n>2 ? 1.0/((double)(n-1)*(n-2)) : 0;
+		}else {
+			escala= g.isDirigido() ? 1 : 0.5; //en no dirigidos cada par se cuenta en los dos sentidos
+		}
+		return calcular(fuentes,ponderado,escala,"Betweenness");
+	}
+
+	/**
+	 * Funcion para estimar la intermediacion normalizada con una muestra de fuentes tomadas al azar.
+	 * Por la desigualdad de Hoeffding y la cota de la union, con
+	 * k = (n/(n-1))^2 ln(2n/delta) / (2 epsilon^2) fuentes el error de todos los nodos es
+	 * menor a epsilon con probabilidad al menos 1-delta. Si k es mayor o igual a n se calcula el valor exacto.
+	 * @param epsilon error absoluto maximo sobre la intermediacion normalizada (entre 0 y 1)
+	 * @param delta probabilidad de que algun nodo supere el error
+	 * @param ponderado si es true las distancias usan los pesos de las aristas
+	 * @param semilla semilla de los numeros aleatorios
+	 * @return intermediacion normalizada estimada de cada nodo por indice interno
+	 */
+	public double[] approximate(double epsilon,double delta,boolean ponderado,long semilla) {
+		if(epsilon<=0 || delta<=0 || delta>=1) {
+			System.err.println("epsilon debe ser positivo y delta debe estar entre 0 y 1");
+			return null;
+		}
+		if(n<=2) {
+			return exact(ponderado,true);
+		}
+		double rango=(double)n/(n-1);
+		double k=Math.ceil(rango*rango*Math.log(2.0*n/delta)/(2*epsilon*epsilon));
+		if(k>=n) {
+			return exact(ponderado,true);
+		}
+		muestras=(int)k;
+		SplittableRandom r=new SplittableRandom(semilla);
+		int[] fuentes=new int[muestras];
+		for(int i=0;i<muestras;i++) {
+			fuentes[i]=r.nextInt(n);
+		}
+		return calcular(fuentes,ponderado,(double)n/muestras/((double)(n-1)*(n-2)),"BetweennessAprox");
+	}
+
+	/**
+	 * Funcion para obtener cuantas fuentes se usaron en el ultimo calculo
+	 * @return numero de fuentes
+	 */
+	public int getSamples() {
+		return muestras;
+	}
+
+	/**
+	 * Funcion para obtener el grafo sobre el que se calcula
+	 * @return Instancia tipo CSRGraph
+	 */
+	public CSRGraph getGraph() {
+		return g;
+	}
+}
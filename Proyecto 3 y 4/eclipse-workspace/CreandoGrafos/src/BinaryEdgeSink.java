@@ -0,0 +1,120 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * EdgeSink que escribe los nodos y aristas en un archivo binario compacto.
+ * Formato: un entero MAGIC, un byte con 1 si es dirigido, y despues registros
+ * 'N' id o 'E' a b w. El archivo puede reproducirse en cualquier otro EdgeSink con replay,
+ * por ejemplo en un GraphSink para cargarlo en memoria.
+ */
+public class BinaryEdgeSink implements EdgeSink {
+
+	static final int MAGIC=0x45444701;
+	private static final byte NODO='N';
+	private static final byte ARISTA='E';
+
+	private String filename;
+	private DataOutputStream out;
+
+	/**
+	 * Constructor
+	 * @param filename nombre del archivo binario
+	 */
+	public BinaryEdgeSink(String filename) {
+		this.filename=filename;
+	}
+
+	@Override
+	public void start(boolean dirigido) {
+		try {
+			out=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename),1<<16));
+			out.writeInt(MAGIC);
+			out.writeBoolean(dirigido);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void addNode(int id) {
+		try {
+			out.writeByte(NODO);
+			out.writeInt(id);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void addEdge(int a,int b,int w) {
+		try {
+			out.writeByte(ARISTA);
+			out.writeInt(a);
+			out.writeInt(b);
+			out.writeInt(w);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void finish() {
+		try {
+			out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Cierra y borra el archivo incompleto
+	 */
+	@Override
+	public void cancel() {
+		try {
+			out.close();
+			new File(filename).delete();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Funcion para leer un archivo escrito por BinaryEdgeSink y enviar su contenido a otro EdgeSink
+	 * @param filename nombre del archivo binario
+	 * @param sink destino de los nodos y aristas
+	 * @throws IOException si el archivo no puede leerse o no tiene el formato esperado
+	 */
+	public static void replay(String filename,EdgeSink sink) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename),1<<16))) {
+			if(in.readInt()!=MAGIC) {
+				throw new IOException("El archivo no fue escrito por BinaryEdgeSink: "+filename);
+			}
+			sink.start(in.readBoolean());
+			while(true) {
+				int tipo;
+				try {
+					tipo=in.readByte();
+				} catch (EOFException e) {
+					break;
+				}
+				if(tipo==NODO) {
+					sink.addNode(in.readInt());
+				}else if(tipo==ARISTA) {
+					sink.addEdge(in.readInt(),in.readInt(),in.readInt());
+				}else {
+					throw new IOException("Registro desconocido en "+filename);
+				}
+			}
+			sink.finish();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Clase para obtener el bosque de expansion minima con el algoritmo de Boruvka en paralelo.
+ * En cada ronda, todos los hilos recorren las aristas y guardan para cada componente
+ * su arista mas ligera hacia otra componente; despues se contraen las componentes
+ * con un union-find concurrente y se descartan las aristas que quedaron dentro de
+ * una misma componente. Los empates de peso se rompen por el indice de la arista,
+ * asi que las aristas elegidas nunca forman ciclos.
+ */
+public class Boruvka {
+
+	private static final long NINGUNA=Long.MAX_VALUE;
+
+	/**
+	 * Funcion para obtener el bosque de expansion minima de todo el grafo
+	 * @param S grafo no dirigido
+	 * @return Instancia tipo Graph con el bosque
+	 */
+	public static Graph getForest(Graph S) {
+		int n=S.getSize();
+		IdMap ids=S.getIdMap();
+		int i;
+		int m=0;
+		for (int node : S.getNodes()) {
+			for (Edge e : S.getNeighbors(node)) {
+				if(e.a<e.b) {
+					m++;
+				}
+			}
+		}
+		int[] ea=new int[m];
+		int[] eb=new int[m];
+		int[] ew=new int[m];
+		m=0;
+		for (int node : S.getNodes()) {
+			for (Edge e : S.getNeighbors(node)) {
+				if(e.a<e.b) {
+					ea[m]=ids.indexOf(e.a);
+					eb[m]=ids.indexOf(e.b);
+					ew[m]=e.w;
+					m++;
+				}
+			}
+		}
+
+		boolean[] enArbol=getForest(n,ea,eb,ew);
+
+		Graph G = new Graph(S.dirigido);
+		for(i=0;i<n;i++) {
+			G.addNode(ids.getIntId(i));
+		}
+		for(i=0;i<m;i++) {
+			if(enArbol[i]) {
+				G.linkNodes(ids.getIntId(ea[i]),ids.getIntId(eb[i]),ew[i]);
+			}
+		}
+		return G;
+	}
+
+	/**
+	 * Funcion que ejecuta Boruvka sobre aristas en arreglos paralelos.
+	 * @param n numero de nodos, numerados 0..n-1
+	 * @param ea nodo origen de cada arista
+	 * @param eb nodo destino de cada arista
+	 * @param ew peso de cada arista
+	 * @return arreglo que indica que aristas forman parte del bosque
+	 */
+	public static boolean[] getForest(int n,int[] ea,int[] eb,int[] ew) {
+		boolean[] enArbol=new boolean[ea.length];
+		ConcurrentUnionFind uf=new ConcurrentUnionFind(n);
+		AtomicLongArray mejor=new AtomicLongArray(n);
+		int[] vivas=IntStream.range(0,ea.length).filter(k -> ea[k]!=eb[k]).toArray();
+
+		while(vivas.length>0) {
+			IntStream.range(0,n).parallel().forEach(k -> mejor.set(k,NINGUNA));
+			final int[] actuales=vivas;
+			//cada componente busca su arista mas ligera hacia otra componente
+			vivas=IntStream.of(actuales).parallel().filter(k -> {
+				int ra=uf.find(ea[k]);
+				int rb=uf.find(eb[k]);
+				if(ra==rb) {
+					return false;
+				}
+				long llave=llave(ew[k],k);
+				minimo(mejor,ra,llave);
+				minimo(mejor,rb,llave);
+				return true;
+			}).toArray();
+			if(vivas.length==0) {
+				break;
+			}
+			//contraccion de las componentes por sus aristas elegidas
+			IntStream.range(0,n).parallel().forEach(r -> {
+				long llave=mejor.get(r);
+				if(llave!=NINGUNA) {
+					int k=(int)llave;
+					if(uf.union(ea[k],eb[k])) {
+						enArbol[k]=true;
+					}
+				}
+			});
+		}
+		return enArbol;
+	}
+
+	/**
+	 * El peso ocupa los 32 bits altos (sin signo, para respetar el orden de los negativos)
+	 * y el indice de la arista los 32 bits bajos.
+	 */
+	private static long llave(int w,int k) {
+		return ((long)(w^Integer.MIN_VALUE) & 0xffffffffL)<<32 | k;
+	}
+
+	private static void minimo(AtomicLongArray a,int i,long v) {
+		long actual=a.get(i);
+		while(v<actual && !a.compareAndSet(i,actual,v)) {
+			actual=a.get(i);
+		}
+	}
+}
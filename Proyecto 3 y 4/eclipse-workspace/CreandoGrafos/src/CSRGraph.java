@@ -0,0 +1,254 @@
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Grafo de solo lectura en formato CSR sobre arreglos primitivos del heap: los identificadores
+ * de los nodos ordenados, el inicio de la lista de vecinos de cada nodo y las listas de vecinos
+ * (como indices internos 0..n-1, ordenadas) con sus pesos. En grafos no dirigidos cada arista
+ * aparece en la lista de sus dos nodos. Se construye con GraphBuilder.
+ * Ademas de AdjacencySource, expone los arreglos para que los algoritmos trabajen directamente
+ * con los indices internos: los vecinos del nodo de indice i son getTargets()[k] para
+ * getOffsets()[i] &lt;= k &lt; getOffsets()[i+1].
+ */
+public class CSRGraph implements AdjacencySource {
+
+	private final boolean dirigido;
+	private final int[] ids;     //identificadores ordenados
+	private final int[] offsets; //inicio de los vecinos de cada indice, n+1 enteros
+	private final int[] targets; //indice del vecino
+	private final int[] weights; //peso de cada arista
+
+	CSRGraph(boolean dirigido,int[] ids,int[] offsets,int[] targets,int[] weights) {
+		this.dirigido=dirigido;
+		this.ids=ids;
+		this.offsets=offsets;
+		this.targets=targets;
+		this.weights=weights;
+	}
+
+	/**
+	 * Funcion para copiar cualquier grafo a formato CSR
+	 * @param g grafo fuente
+	 * @return Instancia tipo CSRGraph
+	 */
+	public static CSRGraph from(AdjacencySource g) {
+		GraphBuilder b=new GraphBuilder(g.isDirigido(),g.getSize()*4);
+		for (int node : g.getNodes()) {
+			b.addNode(node);
+			for (Edge e : g.getNeighbors(node)) {
+				if(g.isDirigido() || e.a<=e.b) {
+					b.addEdge(e.a,e.b,e.w);
+				}
+			}
+		}
+		return b.build();
+	}
+
+	/**
+	 * Funcion para obtener el indice interno de un nodo
+	 * @param id identificador del nodo
+	 * @return indice, o un valor negativo si el nodo no existe
+	 */
+	public int indexOf(int id) {
+		return Arrays.binarySearch(ids,id);
+	}
+
+	/**
+	 * Funcion para obtener el identificador del nodo con un indice interno
+	 * @param indice indice interno
+	 * @return identificador del nodo
+	 */
+	public int getId(int indice) {
+		return ids[indice];
+	}
+
+	/**
+	 * Funcion para obtener los identificadores de los nodos ordenados por indice.
+	 * Es el arreglo interno, no debe modificarse.
+	 * @return arreglo de n identificadores
+	 */
+	public int[] getIds() {
+		return ids;
+	}
+
+	/**
+	 * Funcion para obtener el inicio de la lista de vecinos de cada indice.
+	 * Es el arreglo interno, no debe modificarse.
+	 * @return arreglo de n+1 posiciones
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * Funcion para obtener los indices de los vecinos. Es el arreglo interno, no debe modificarse.
+	 * @return arreglo de getEdgeCount() indices
+	 */
+	public int[] getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Funcion para obtener los pesos de las aristas. Es el arreglo interno, no debe modificarse.
+	 * @return arreglo de getEdgeCount() pesos
+	 */
+	public int[] getWeights() {
+		return weights;
+	}
+
+	@Override
+	public boolean isDirigido() {
+		return dirigido;
+	}
+
+	@Override
+	public int getSize() {
+		return ids.length;
+	}
+
+	/**
+	 * Funcion para obtener la tabla de indices de los nodos: son los mismos indices internos
+	 * del grafo, que se buscan en los identificadores ordenados sin crear una tabla hash
+	 * @return Instancia tipo IdMap de solo lectura
+	 */
+	@Override
+	public IdMap getIdMap() {
+		return IdMap.sorted(ids.length,this::indexOf,this::getId);
+	}
+
+	/**
+	 * Funcion para obtener el numero de aristas guardadas (en grafos no dirigidos cada arista cuenta dos veces)
+	 * @return numero de aristas
+	 */
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	@Override
+	public Set<Integer> getNodes() {
+		return new AbstractSet<Integer>() {
+			@Override
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					int i=0;
+
+					@Override
+					public boolean hasNext() {
+						return i<ids.length;
+					}
+
+					@Override
+					public Integer next() {
+						if(i>=ids.length) {
+							throw new NoSuchElementException();
+						}
+						return ids[i++];
+					}
+				};
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof Integer && existsNode((Integer)o);
+			}
+
+			@Override
+			public int size() {
+				return ids.length;
+			}
+		};
+	}
+
+	@Override
+	public boolean existsNode(int id) {
+		return indexOf(id)>=0;
+	}
+
+	/**
+	 * Funcion para obtener el grado de salida de un nodo
+	 * @param id identificador del nodo
+	 * @return numero de vecinos, o 0 si el nodo no existe
+	 */
+	public int getDegree(int id) {
+		int i=indexOf(id);
+		return i<0 ? 0 : offsets[i+1]-offsets[i];
+	}
+
+	/**
+	 * Funcion para recorrer los vecinos de un nodo sin crear objetos
+	 * @param id identificador del nodo
+	 * @param accion operacion que recibe (id, vecino, peso)
+	 */
+	public void forEachNeighbor(int id,IntIntIntConsumer accion) {
+		int i=indexOf(id);
+		if(i<0) {
+			return;
+		}
+		for(int k=offsets[i];k<offsets[i+1];k++) {
+			accion.accept(id,ids[targets[k]],weights[k]);
+		}
+	}
+
+	/**
+	 * Funcion para obtener los vecinos de un nodo. Las aristas se crean en cada llamada,
+	 * para recorridos grandes conviene usar forEachNeighbor o los arreglos.
+	 */
+	@Override
+	public Set<Edge> getNeighbors(int id) {
+		int i=indexOf(id);
+		if(i<0) {
+			return null;
+		}
+		Set<Edge> res=new HashSet<Edge>((offsets[i+1]-offsets[i])*4/3+1);
+		for(int k=offsets[i];k<offsets[i+1];k++) {
+			res.add(new Edge(id,ids[targets[k]],weights[k]));
+		}
+		return res;
+	}
+
+	/**
+	 * Busca la posicion de la arista a-&gt;b en targets
+	 * @return posicion, o -1 si no existe
+	 */
+	private int buscar(int a,int b) {
+		int i=indexOf(a);
+		int j=indexOf(b);
+		if(i<0 || j<0) {
+			return -1;
+		}
+		int k=Arrays.binarySearch(targets,offsets[i],offsets[i+1],j);
+		return k<0 ? -1 : k;
+	}
+
+	@Override
+	public boolean isLinked(int a,int b) {
+		return buscar(a,b)>=0;
+	}
+
+	@Override
+	public int getW(int a,int b) {
+		int k=buscar(a,b);
+		return k<0 ? Integer.MAX_VALUE : weights[k];
+	}
+
+	/**
+	 * Funcion para convertir el grafo en una instancia de Graph. Las aristas de cada nodo
+	 * ya estan sin repetir, por lo que se agregan sin pasar por linkNodes.
+	 * @return Instancia tipo Graph con los mismos nodos y aristas
+	 */
+	public Graph toGraph() {
+		Graph g=new Graph(dirigido);
+		for(int i=0;i<ids.length;i++) {
+			Set<Edge> vecinos=new HashSet<Edge>();
+			for(int k=offsets[i];k<offsets[i+1];k++) {
+				vecinos.add(new Edge(ids[i],ids[targets[k]],weights[k]));
+			}
+			g.putNode(ids[i],vecinos);
+		}
+		return g;
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Token para cancelar operaciones largas desde otro hilo. Puede cancelarse
+ * explicitamente con cancel o tener un tiempo limite. Las operaciones que lo reciben
+ * lo revisan periodicamente y lanzan CancelledException cuando esta cancelado.
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelado;
+	private final long limite; //System.nanoTime en el que vence, o Long.MAX_VALUE
+
+	/**
+	 * Constructor de un token sin tiempo limite
+	 */
+	public CancellationToken() {
+		limite=Long.MAX_VALUE;
+	}
+
+	private CancellationToken(long limite) {
+		this.limite=limite;
+	}
+
+	/**
+	 * Funcion para crear un token que se cancela solo despues de un tiempo
+	 * @param millis tiempo limite en milisegundos, contado desde ahora
+	 * @return Instancia tipo CancellationToken
+	 */
+	public static CancellationToken withTimeout(long millis) {
+		return new CancellationToken(System.nanoTime()+millis*1000000L);
+	}
+
+	/**
+	 * Funcion para cancelar las operaciones que usan este token
+	 */
+	public void cancel() {
+		cancelado=true;
+	}
+
+	/**
+	 * Funcion para saber si el token esta cancelado o vencido
+	 * @return true si las operaciones deben detenerse
+	 */
+	public boolean isCancelled() {
+		return cancelado || (limite!=Long.MAX_VALUE && System.nanoTime()-limite>=0);
+	}
+
+	/**
+	 * Funcion que lanza CancelledException si el token esta cancelado o vencido
+	 */
+	public void throwIfCancelled() {
+		if(cancelado) {
+			throw new CancelledException("La operacion fue cancelada");
+		}
+		if(limite!=Long.MAX_VALUE && System.nanoTime()-limite>=0) {
+			throw new CancelledException("Se agoto el tiempo limite de la operacion");
+		}
+	}
+}
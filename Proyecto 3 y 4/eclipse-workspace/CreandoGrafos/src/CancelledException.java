@@ -0,0 +1,16 @@
+/**
+ * Excepcion que lanzan las operaciones largas cuando su CancellationToken
+ * se cancela o se agota su tiempo limite.
+ */
+public class CancelledException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 * @param mensaje motivo de la cancelacion
+	 */
+	public CancelledException(String mensaje) {
+		super(mensaje);
+	}
+}
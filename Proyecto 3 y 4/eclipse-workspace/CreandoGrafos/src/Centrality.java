@@ -0,0 +1,244 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Medidas de centralidad de los nodos: PageRank (con factor de amortiguamiento y vector de
+ * personalizacion opcional) y centralidad de vector propio. Ambas se calculan por iteraciones
+ * en las que cada nodo "jala" el valor de los nodos que apuntan a el, sobre arreglos double
+ * indexados por los indices internos de un CSRGraph. Como cada nodo solo escribe su propio
+ * valor, los nodos de cada iteracion se reparten entre los hilos sin sincronizacion.
+ * Las aristas se toman sin peso. Los resultados se regresan por indice interno; toMap los
+ * traduce a los identificadores de los nodos.
+ */
+public class Centrality {
+
+	private final CSRGraph g;
+	private final int n;
+	private final int[] entradaOff; //inicio de los nodos que apuntan a cada indice
+	private final int[] entrada;    //indices de los nodos que apuntan a cada indice
+	private final int[] grado;      //grado de salida
+	private final int bloques;
+	private int iteraciones;
+
+	/**
+	 * Constructor que copia el grafo a formato CSR
+	 * @param g grafo
+	 */
+	public Centrality(AdjacencySource g) {
+		this(g instanceof CSRGraph ? (CSRGraph)g : CSRGraph.from(g));
+	}
+
+	/**
+	 * Constructor
+	 * @param g grafo en formato CSR
+	 */
+	public Centrality(CSRGraph g) {
+		this.g=g;
+		n=g.getSize();
+		int[] off=g.getOffsets();
+		int[] tg=g.getTargets();
+		grado=new int[n];
+		for(int i=0;i<n;i++) {
+			grado[i]=off[i+1]-off[i];
+		}
+		if(g.isDirigido()) {
+			//grafo transpuesto: para cada nodo, los que apuntan a el
+			entradaOff=new int[n+1];
+			for (int t : tg) {
+				entradaOff[t+1]++;
+			}
+			for(int i=0;i<n;i++) {
+				entradaOff[i+1]+=entradaOff[i];
+			}
+			entrada=new int[tg.length];
+			int[] pos=Arrays.copyOf(entradaOff,n);
+			for(int i=0;i<n;i++) {
+				for(int k=off[i];k<off[i+1];k++) {
+					entrada[pos[tg[k]]++]=i;
+				}
+			}
+		}else {
+			entradaOff=off;
+			entrada=tg;
+		}
+		bloques=Math.max(1,Math.min(Runtime.getRuntime().availableProcessors()*4,n/1024));
+	}
+
+	/**
+	 * Funcion para calcular PageRank sin personalizacion
+	 * @see #pageRank(double, Map, double, int)
+	 */
+	public double[] pageRank(double damping,double tolerancia,int maxIter) {
+		return pageRank(damping,null,tolerancia,maxIter);
+	}
+
+	/**
+	 * Funcion para calcular PageRank. En cada iteracion un nodo recibe (1-damping) veces su
+	 * peso de personalizacion mas damping veces la suma de rank/grado de los nodos que apuntan a el;
+	 * el rank de los nodos sin aristas de salida se reparte segun la personalizacion.
+	 * @param damping factor de amortiguamiento, entre 0 y 1 (normalmente 0.85)
+	 * @param personalizacion peso de cada nodo (por identificador) al que se regresa al teletransportarse,
+	 * 			o null para repartirlo uniformemente; se normaliza para que sume 1
+	 * @param tolerancia se detiene cuando la suma de los cambios absolutos es menor a este valor
+	 * @param maxIter numero maximo de iteraciones
+	 * @return rank de cada nodo por indice interno (suman 1), o null si los parametros no son validos
+	 */
+	public double[] pageRank(double damping,Map<Integer, Double> personalizacion,double tolerancia,int maxIter) {
+		if(damping<0 || damping>=1) {
+			System.err.println("damping debe estar entre 0 y 1");
+			return null;
+		}
+		long inicio=Metrics.start();
+		double[] p=new double[n];
+		if(personalizacion==null) {
+			Arrays.fill(p,1.0/n);
+		}else {
+			double suma=0;
+			for (Map.Entry<Integer, Double> e : personalizacion.entrySet()) {
+				int i=g.indexOf(e.getKey());
+				if(i>=0 && e.getValue()>0) {
+					p[i]+=e.getValue();
+					suma+=e.getValue();
+				}
+			}
+			if(suma==0) {
+				System.err.println("La personalizacion no tiene ningun nodo del grafo con peso positivo");
+				return null;
+			}
+			for(int i=0;i<n;i++) {
+				p[i]/=suma;
+			}
+		}
+		double[] x=Arrays.copyOf(p,n);
+		double[] nuevo=new double[n];
+		double[] aporte=new double[n];
+		iteraciones=0;
+		double error=Double.MAX_VALUE;
+		while(iteraciones<maxIter && error>=tolerancia) {
+			double[] xa=x;
+			double colgante=IntStream.range(0,bloques).parallel().mapToDouble(b -> {
+				double s=0;
+				for(int i=inicioBloque(b);i<inicioBloque(b+1);i++) {
+					if(grado[i]==0) {
+						aporte[i]=0;
+						s+=xa[i];
+					}else {
+						aporte[i]=xa[i]/grado[i];
+					}
+				}
+				return s;
+			}).sum();
+			double[] xn=nuevo;
+			error=IntStream.range(0,bloques).parallel().mapToDouble(b -> {
+				double e=0;
+				for(int v=inicioBloque(b);v<inicioBloque(b+1);v++) {
+					double s=0;
+					for(int k=entradaOff[v];k<entradaOff[v+1];k++) {
+						s+=aporte[entrada[k]];
+					}
+					xn[v]=damping*(s+colgante*p[v])+(1-damping)*p[v];
+					e+=Math.abs(xn[v]-xa[v]);
+				}
+				return e;
+			}).sum();
+			nuevo=x;
+			x=xn;
+			iteraciones++;
+		}
+		terminar("PageRank",inicio,error,tolerancia,maxIter);
+		return x;
+	}
+
+	/**
+	 * Funcion para calcular la centralidad de vector propio: el valor de cada nodo es proporcional
+	 * a la suma de los valores de los nodos que apuntan a el. Se usa el metodo de las potencias
+	 * sobre A+I (mismo vector propio que A) para que converja tambien en grafos bipartitos.
+	 * @param tolerancia se detiene cuando la suma de los cambios absolutos es menor a este valor
+	 * @param maxIter numero maximo de iteraciones
+	 * @return centralidad de cada nodo por indice interno, con norma euclidiana 1
+	 */
+	public double[] eigenvector(double tolerancia,int maxIter) {
+		long inicio=Metrics.start();
+		double[] x=new double[n];
+		Arrays.fill(x,1.0/Math.sqrt(n));
+		double[] nuevo=new double[n];
+		iteraciones=0;
+		double error=Double.MAX_VALUE;
+		while(iteraciones<maxIter && error>=tolerancia) {
+			double[] xa=x;
+			double[] xn=nuevo;
+			double norma=Math.sqrt(IntStream.range(0,bloques).parallel().mapToDouble(b -> {
+				double s2=0;
+				for(int v=inicioBloque(b);v<inicioBloque(b+1);v++) {
+					double s=xa[v];
+					for(int k=entradaOff[v];k<entradaOff[v+1];k++) {
+						s+=xa[entrada[k]];
+					}
+					xn[v]=s;
+					s2+=s*s;
+				}
+				return s2;
+			}).sum());
+			if(norma==0) {
+				break;
+			}
+			error=IntStream.range(0,bloques).parallel().mapToDouble(b -> {
+				double e=0;
+				for(int v=inicioBloque(b);v<inicioBloque(b+1);v++) {
+					xn[v]/=norma;
+					e+=Math.abs(xn[v]-xa[v]);
+				}
+				return e;
+			}).sum();
+			nuevo=x;
+			x=xn;
+			iteraciones++;
+		}
+		terminar("Eigenvector",inicio,error,tolerancia,maxIter);
+		return x;
+	}
+
+	private int inicioBloque(int b) {
+		return (int)((long)n*b/bloques);
+	}
+
+	private void terminar(String algoritmo,long inicio,double error,double tolerancia,int maxIter) {
+		if(error>=tolerancia) {
+			System.err.println(algoritmo+" no convergio en "+maxIter+" iteraciones (error "+error+")");
+		}
+		Metrics.count(algoritmo,"iteraciones",iteraciones);
+		Metrics.count(algoritmo,"aristas_revisadas",(long)iteraciones*entrada.length);
+		Metrics.time(algoritmo,inicio);
+	}
+
+	/**
+	 * Funcion para obtener el numero de iteraciones del ultimo calculo
+	 * @return iteraciones realizadas
+	 */
+	public int getIterations() {
+		return iteraciones;
+	}
+
+	/**
+	 * Funcion para traducir un resultado a los identificadores de los nodos
+	 * @param valores valor de cada indice interno
+	 * @return mapa identificador -&gt; valor
+	 */
+	public HashMap<Integer, Double> toMap(double[] valores) {
+		HashMap<Integer, Double> res=new HashMap<>();
+		for(int i=0;i<n;i++) {
+			res.put(g.getId(i),valores[i]);
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el grafo sobre el que se calcula
+	 * @return Instancia tipo CSRGraph
+	 */
+	public CSRGraph getGraph() {
+		return g;
+	}
+}
@@ -0,0 +1,537 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Grafo de solo lectura con la adyacencia comprimida, pensado para guardar y analizar
+ * grafos grandes usando pocos bytes por arista.
+ * Los vecinos de cada nodo se guardan ordenados y codificados como diferencias (gaps)
+ * con enteros de longitud variable (varint). Opcionalmente, al estilo de WebGraph, la lista de
+ * un nodo puede copiar parte de la lista de alguno de los nodos anteriores (referencia)
+ * con una mascara de bits, y solo se codifican los vecinos restantes.
+ * Un indice con el byte de inicio de cada nodo permite acceso directo a cualquier lista.
+ * Los datos se guardan en bloques de 1 GB, igual que OffHeapArray, y las posiciones son long,
+ * asi que pueden pasar de 2 GB.
+ */
+public class CompressedGraph implements AdjacencySource {
+
+	private static final int MAGIC=0x43475a01;
+	private static final int MAX_CADENA=3; //referencias encadenadas maximas, limita el costo de decodificar
+
+	private boolean dirigido;
+	private int[] ids;      //identificadores ordenados, la posicion es el indice interno
+	private long[] offsets; //byte donde inicia cada nodo
+	private Datos data;
+	private int ventana;
+
+	private CompressedGraph() {
+	}
+
+	/**
+	 * Funcion para comprimir un grafo con una ventana de referencias de 7 nodos
+	 * @param g grafo fuente
+	 * @return Instancia tipo CompressedGraph
+	 */
+	public static CompressedGraph from(AdjacencySource g) {
+		return from(g,7);
+	}
+
+	/**
+	 * Funcion para comprimir un grafo
+	 * @param g grafo fuente
+	 * @param ventana numero de nodos anteriores que se consideran como referencia, 0 para no usar referencias
+	 * @return Instancia tipo CompressedGraph
+	 */
+	public static CompressedGraph from(AdjacencySource g,int ventana) {
+		CompressedGraph c=new CompressedGraph();
+		c.dirigido=g.isDirigido();
+		c.ventana=ventana;
+		int n=g.getSize();
+		c.ids=new int[n];
+		int i=0;
+		for (int node : g.getNodes()) {
+			c.ids[i++]=node;
+		}
+		Arrays.sort(c.ids);
+		c.offsets=new long[n+1];
+
+		Datos out=new Datos();
+		ByteArrayOutputStream mejor=new ByteArrayOutputStream();
+		ByteArrayOutputStream prueba=new ByteArrayOutputStream();
+		int[][] anteriores=new int[ventana+1][]; //listas de los ultimos nodos, en anillo
+		int[] cadena=new int[n];
+		for(i=0;i<n;i++) {
+			Set<Edge> vecinos=g.getNeighbors(c.ids[i]);
+			long[] par=new long[vecinos.size()];
+			int j=0;
+			for (Edge e : vecinos) {
+				par[j++]=((long)Arrays.binarySearch(c.ids,e.b)<<32) | (e.w & 0xffffffffL);
+			}
+			Arrays.sort(par);
+			int[] lista=new int[par.length];
+			int[] pesos=new int[par.length];
+			for(j=0;j<par.length;j++) {
+				lista[j]=(int)(par[j]>>32);
+				pesos[j]=(int)par[j];
+			}
+
+			mejor.reset();
+			codificar(i,lista,pesos,0,null,mejor);
+			int ref=0;
+			for(int k=1;k<=ventana && k<=i && lista.length>0;k++) {
+				if(cadena[i-k]>=MAX_CADENA) {
+					continue;
+				}
+				prueba.reset();
+				codificar(i,lista,pesos,k,anteriores[(i-k)%(ventana+1)],prueba);
+				if(prueba.size()<mejor.size()) {
+					ByteArrayOutputStream t=mejor;
+					mejor=prueba;
+					prueba=t;
+					ref=k;
+				}
+			}
+			cadena[i]=ref>0 ? cadena[i-ref]+1 : 0;
+			c.offsets[i]=out.size();
+			out.write(mejor.toByteArray());
+			anteriores[i%(ventana+1)]=lista;
+		}
+		c.offsets[n]=out.size();
+		out.recortar();
+		c.data=out;
+		return c;
+	}
+
+	/**
+	 * Bytes de la adyacencia en bloques de 1 GB, porque un arreglo solo se puede indexar con int.
+	 * Todos los bloques menos el ultimo miden exactamente 1 GB.
+	 */
+	private static final class Datos {
+		private static final int BLOQUE_BITS=30;
+		private static final int BLOQUE=1<<BLOQUE_BITS;
+		private static final long MASCARA=BLOQUE-1;
+
+		private byte[][] bloques=new byte[0][];
+		private long tam;
+
+		byte get(long pos) {
+			return bloques[(int)(pos>>>BLOQUE_BITS)][(int)(pos&MASCARA)];
+		}
+
+		long size() {
+			return tam;
+		}
+
+		/**
+		 * Agrega bytes al final; el ultimo bloque crece al doble hasta llegar a 1 GB
+		 */
+		void write(byte[] b) {
+			int hecho=0;
+			while(hecho<b.length) {
+				int k=(int)(tam>>>BLOQUE_BITS);
+				int pos=(int)(tam&MASCARA);
+				if(k==bloques.length) {
+					bloques=Arrays.copyOf(bloques,k+1);
+					bloques[k]=new byte[Math.min(BLOQUE,Math.max(1<<16,b.length-hecho))];
+				}else if(pos==bloques[k].length) {
+					bloques[k]=Arrays.copyOf(bloques[k],(int)Math.min(BLOQUE,bloques[k].length*2L));
+				}
+				int c=Math.min(b.length-hecho,bloques[k].length-pos);
+				System.arraycopy(b,hecho,bloques[k],pos,c);
+				hecho+=c;
+				tam+=c;
+			}
+		}
+
+		/**
+		 * Ajusta el ultimo bloque a los bytes usados
+		 */
+		void recortar() {
+			int k=bloques.length-1;
+			if(k>=0 && tam-((long)k<<BLOQUE_BITS)<bloques[k].length) {
+				bloques[k]=Arrays.copyOf(bloques[k],(int)(tam-((long)k<<BLOQUE_BITS)));
+			}
+		}
+
+		void writeTo(DataOutputStream out) throws IOException {
+			for (byte[] b : bloques) {
+				out.write(b);
+			}
+		}
+
+		static Datos readFrom(DataInputStream in,long tam) throws IOException {
+			Datos d=new Datos();
+			d.bloques=new byte[(int)((tam+BLOQUE-1)>>>BLOQUE_BITS)][];
+			for(int k=0;k<d.bloques.length;k++) {
+				d.bloques[k]=new byte[(int)Math.min(BLOQUE,tam-((long)k<<BLOQUE_BITS))];
+				in.readFully(d.bloques[k]);
+			}
+			d.tam=tam;
+			return d;
+		}
+	}
+
+	/**
+	 * Codifica la lista de un nodo: grado, referencia, mascara de copiado,
+	 * vecinos restantes como diferencias y al final los pesos.
+	 */
+	private static void codificar(int i,int[] lista,int[] pesos,int k,int[] referencia,ByteArrayOutputStream out) {
+		writeVarint(out,lista.length);
+		if(lista.length==0) {
+			return;
+		}
+		writeVarint(out,k);
+		boolean[] copiado=new boolean[lista.length];
+		if(k>0) {
+			int a=0;
+			int mascara=0;
+			for(int j=0;j<referencia.length;j++) {
+				while(a<lista.length && lista[a]<referencia[j]) {
+					a++;
+				}
+				if(a<lista.length && lista[a]==referencia[j]) {
+					mascara|=1<<(j&7);
+					copiado[a]=true;
+				}
+				if((j&7)==7 || j==referencia.length-1) {
+					out.write(mascara);
+					mascara=0;
+				}
+			}
+		}
+		int anterior=-1;
+		for(int j=0;j<lista.length;j++) {
+			if(copiado[j]) {
+				continue;
+			}
+			if(anterior<0) {
+				writeVarint(out,zigzag(lista[j]-i));
+			}else {
+				writeVarint(out,lista[j]-anterior-1);
+			}
+			anterior=lista[j];
+		}
+		for (int w : pesos) {
+			writeVarint(out,zigzag(w));
+		}
+	}
+
+	private static long zigzag(long v) {
+		return (v<<1)^(v>>63);
+	}
+
+	private static long unzigzag(long v) {
+		return (v>>>1)^-(v&1);
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out,long v) {
+		while((v & ~0x7fL)!=0) {
+			out.write((int)((v & 0x7f)|0x80));
+			v>>>=7;
+		}
+		out.write((int)v);
+	}
+
+	/**
+	 * Lector secuencial de varints sobre el arreglo de datos
+	 */
+	private class Lector {
+		long pos;
+
+		Lector(long pos) {
+			this.pos=pos;
+		}
+
+		long varint() {
+			long v=0;
+			int shift=0;
+			while(true) {
+				byte b=data.get(pos++);
+				v|=(long)(b & 0x7f)<<shift;
+				if(b>=0) {
+					return v;
+				}
+				shift+=7;
+			}
+		}
+	}
+
+	/**
+	 * Decodifica los vecinos (indices internos) del nodo i y deja el lector al inicio de los pesos
+	 */
+	private int[] vecinos(int i,Lector l) {
+		int d=(int)l.varint();
+		int[] lista=new int[d];
+		if(d==0) {
+			return lista;
+		}
+		int k=(int)l.varint();
+		int[] copiados=new int[d];
+		int nc=0;
+		if(k>0) {
+			int[] ref=vecinos(i-k,new Lector(offsets[i-k]));
+			int mascara=0;
+			for(int j=0;j<ref.length;j++) {
+				if((j&7)==0) {
+					mascara=data.get(l.pos++);
+				}
+				if((mascara & (1<<(j&7)))!=0) {
+					copiados[nc++]=ref[j];
+				}
+			}
+		}
+		int nr=d-nc;
+		int a=0;
+		int c=0;
+		int anterior=-1;
+		for(int j=0;j<nr;j++) {
+			int v=anterior<0 ? (int)(i+unzigzag(l.varint())) : (int)(anterior+1+l.varint());
+			anterior=v;
+			while(c<nc && copiados[c]<v) {
+				lista[a++]=copiados[c++];
+			}
+			lista[a++]=v;
+		}
+		while(c<nc) {
+			lista[a++]=copiados[c++];
+		}
+		return lista;
+	}
+
+	private int indice(int id) {
+		int i=Arrays.binarySearch(ids,id);
+		return i<0 ? -1 : i;
+	}
+
+	/**
+	 * Funcion para recorrer los vecinos de un nodo en orden ascendente sin crear objetos Edge
+	 * @param id identificador del nodo
+	 * @param accion operacion que recibe (id, vecino, peso)
+	 */
+	public void forEachNeighbor(int id,IntIntIntConsumer accion) {
+		NeighborIterator it=neighbors(id);
+		while(it.hasNext()) {
+			int b=it.next();
+			accion.accept(id,b,it.weight());
+		}
+	}
+
+	/**
+	 * Funcion para obtener un iterador sobre los vecinos de un nodo en orden ascendente
+	 * @param id identificador del nodo
+	 * @return iterador (vacio si el nodo no existe)
+	 */
+	public NeighborIterator neighbors(int id) {
+		int i=indice(id);
+		if(i<0) {
+			return new NeighborIterator(new int[0],new int[0]);
+		}
+		Lector l=new Lector(offsets[i]);
+		int[] lista=vecinos(i,l);
+		int[] pesos=new int[lista.length];
+		for(int j=0;j<lista.length;j++) {
+			lista[j]=ids[lista[j]];
+			pesos[j]=(int)unzigzag(l.varint());
+		}
+		return new NeighborIterator(lista,pesos);
+	}
+
+	/**
+	 * Iterador de los vecinos de un nodo. next regresa el identificador del vecino
+	 * y weight el peso de la arista del ultimo vecino regresado.
+	 */
+	public static class NeighborIterator {
+		private final int[] vecinos;
+		private final int[] pesos;
+		private int i=-1;
+
+		NeighborIterator(int[] vecinos,int[] pesos) {
+			this.vecinos=vecinos;
+			this.pesos=pesos;
+		}
+
+		public boolean hasNext() {
+			return i+1<vecinos.length;
+		}
+
+		public int next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return vecinos[++i];
+		}
+
+		public int weight() {
+			return pesos[i];
+		}
+
+		public int size() {
+			return vecinos.length;
+		}
+	}
+
+	/**
+	 * Funcion para obtener el grado de salida de un nodo
+	 * @param id identificador del nodo
+	 * @return numero de vecinos, o 0 si el nodo no existe
+	 */
+	public int getDegree(int id) {
+		int i=indice(id);
+		return i<0 ? 0 : (int)new Lector(offsets[i]).varint();
+	}
+
+	/**
+	 * Funcion para obtener el espacio usado por la representacion
+	 * @return bytes de datos, indice e identificadores
+	 */
+	public long getByteSize() {
+		return data.size()+offsets.length*8L+ids.length*4L;
+	}
+
+	@Override
+	public boolean isDirigido() {
+		return dirigido;
+	}
+
+	@Override
+	public int getSize() {
+		return ids.length;
+	}
+
+	/**
+	 * Funcion para obtener la tabla de indices de los nodos: son los mismos indices internos
+	 * del grafo, que se buscan en los identificadores ordenados sin crear una tabla hash
+	 * @return Instancia tipo IdMap de solo lectura
+	 */
+	@Override
+	public IdMap getIdMap() {
+		return IdMap.sorted(ids.length,this::indice,i -> ids[i]);
+	}
+
+	@Override
+	public Set<Integer> getNodes() {
+		return new AbstractSet<Integer>() {
+			@Override
+			public Iterator<Integer> iterator() {
+				return Arrays.stream(ids).iterator();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof Integer && existsNode((Integer)o);
+			}
+
+			@Override
+			public int size() {
+				return ids.length;
+			}
+		};
+	}
+
+	@Override
+	public Set<Edge> getNeighbors(int id) {
+		if(indice(id)<0) {
+			return null;
+		}
+		Set<Edge> res=new HashSet<Edge>();
+		forEachNeighbor(id,(a,b,w) -> res.add(new Edge(a,b,w)));
+		return res;
+	}
+
+	@Override
+	public boolean existsNode(int id) {
+		return indice(id)>=0;
+	}
+
+	@Override
+	public boolean isLinked(int a,int b) {
+		int i=indice(a);
+		int j=indice(b);
+		return i>=0 && j>=0 && Arrays.binarySearch(vecinos(i,new Lector(offsets[i])),j)>=0;
+	}
+
+	@Override
+	public int getW(int a,int b) {
+		int i=indice(a);
+		int j=indice(b);
+		if(i<0 || j<0) {
+			return Integer.MAX_VALUE;
+		}
+		Lector l=new Lector(offsets[i]);
+		int[] lista=vecinos(i,l);
+		int k=Arrays.binarySearch(lista,j);
+		if(k<0) {
+			return Integer.MAX_VALUE;
+		}
+		for(int t=0;t<k;t++) {
+			l.varint();
+		}
+		return (int)unzigzag(l.varint());
+	}
+
+	/**
+	 * Funcion para guardar el grafo comprimido en un archivo binario
+	 * @param filename Nombre del archivo en el que se guardara
+	 */
+	public void saveFile(String filename) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeBoolean(dirigido);
+			out.writeInt(ventana);
+			out.writeInt(ids.length);
+			for (int id : ids) {
+				out.writeInt(id);
+			}
+			for (long o : offsets) {
+				out.writeLong(o);
+			}
+			data.writeTo(out);
+			System.out.println("Grafo guardado correctamente como "+filename);
+		} catch (IOException e) {
+			System.out.println("Ha ocurrido un error al guardar el grafo: "+filename);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Funcion para cargar un grafo guardado con saveFile
+	 * @param filename Nombre del archivo
+	 * @return instancia tipo CompressedGraph, o null si hubo un error
+	 */
+	public static CompressedGraph loadFile(String filename) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+			if(in.readInt()!=MAGIC) {
+				System.err.println("El archivo no contiene un grafo comprimido: "+filename);
+				return null;
+			}
+			CompressedGraph c=new CompressedGraph();
+			c.dirigido=in.readBoolean();
+			c.ventana=in.readInt();
+			int n=in.readInt();
+			c.ids=new int[n];
+			for(int i=0;i<n;i++) {
+				c.ids[i]=in.readInt();
+			}
+			c.offsets=new long[n+1];
+			for(int i=0;i<=n;i++) {
+				c.offsets[i]=in.readLong();
+			}
+			c.data=Datos.readFrom(in,c.offsets[n]);
+			return c;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,238 @@
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grafo que puede modificarse desde varios hilos a la vez, por ejemplo para que varios
+ * generadores o lectores de archivos escriban en un mismo grafo. Los nodos se guardan en un
+ * ConcurrentHashMap y las aristas de cada nodo en un HashSet protegido por un candado.
+ * Los candados se reparten por franjas: cada nodo usa el candado de su franja, asi dos hilos
+ * que enlazan nodos distintos casi nunca se bloquean entre si.
+ * linkNodes es atomico: en grafos no dirigidos toma los candados de los dos nodos (siempre en el
+ * mismo orden para no provocar bloqueos mutuos) y agrega la arista y su inversa juntas.
+ * Para ejecutar los algoritmos conviene convertirlo primero con toGraph.
+ */
+public class ConcurrentGraph implements AdjacencySource, EdgeSink {
+
+	private volatile boolean dirigido;
+	private final ConcurrentHashMap<Integer, Set<Edge>> nodes = new ConcurrentHashMap<>();
+	private final Object[] candados;
+	private final LongAdder aristas = new LongAdder();
+
+	/**
+	 * Constructor de un grafo no dirigido
+	 */
+	public ConcurrentGraph() {
+		this(false);
+	}
+
+	/**
+	 * Constructor con cuatro franjas de candados por procesador
+	 * @param dirigido si el valor es true, sera un grafo dirigido
+	 */
+	public ConcurrentGraph(boolean dirigido) {
+		this(dirigido,Runtime.getRuntime().availableProcessors()*4);
+	}
+
+	/**
+	 * Constructor
+	 * @param dirigido si el valor es true, sera un grafo dirigido
+	 * @param franjas numero de candados, se redondea a una potencia de dos
+	 */
+	public ConcurrentGraph(boolean dirigido,int franjas) {
+		this.dirigido=dirigido;
+		candados=new Object[Integer.highestOneBit(Math.max(1,franjas)*2-1)];
+		for(int i=0;i<candados.length;i++) {
+			candados[i]=new Object();
+		}
+	}
+
+	private int franja(int id) {
+		int h=id*0x9E3779B9;
+		return (h^(h>>>16)) & (candados.length-1);
+	}
+
+	@Override
+	public boolean isDirigido() {
+		return dirigido;
+	}
+
+	@Override
+	public int getSize() {
+		return nodes.size();
+	}
+
+	/**
+	 * Funcion para obtener el numero de aristas. En grafos no dirigidos cada arista se cuenta una vez.
+	 * @return numero de aristas
+	 */
+	public long getEdgeCount() {
+		return aristas.sum();
+	}
+
+	@Override
+	public Set<Integer> getNodes() {
+		return Collections.unmodifiableSet(nodes.keySet());
+	}
+
+	/**
+	 * Funcion para obtener las aristas que salen de un nodo. Como otros hilos pueden estar
+	 * agregando aristas, se regresa una copia.
+	 * @param id identificador del nodo
+	 * @return copia del conjunto de aristas id-&gt;b, o null si el nodo no existe
+	 */
+	@Override
+	public Set<Edge> getNeighbors(int id) {
+		Set<Edge> s=nodes.get(id);
+		if(s==null) {
+			return null;
+		}
+		synchronized(candados[franja(id)]) {
+			return new HashSet<>(s);
+		}
+	}
+
+	@Override
+	public boolean existsNode(int id) {
+		return nodes.containsKey(id);
+	}
+
+	@Override
+	public boolean isLinked(int a,int b) {
+		Set<Edge> s=nodes.get(a);
+		if(s==null) {
+			return false;
+		}
+		synchronized(candados[franja(a)]) {
+			return buscar(s,b)!=null;
+		}
+	}
+
+	@Override
+	public int getW(int a,int b) {
+		Set<Edge> s=nodes.get(a);
+		if(s==null) {
+			return Integer.MAX_VALUE;
+		}
+		synchronized(candados[franja(a)]) {
+			Edge e=buscar(s,b);
+			return e==null ? Integer.MAX_VALUE : e.w;
+		}
+	}
+
+	private static Edge buscar(Set<Edge> s,int b) {
+		for (Edge e : s) {
+			if(e.b==b) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Funcion para agregar un nodo. Si el nodo ya existe no hace nada.
+	 * @param id identificador del nodo
+	 */
+	@Override
+	public void addNode(int id) {
+		nodes.computeIfAbsent(id,k -> new HashSet<Edge>());
+	}
+
+	/**
+	 * Funcion para enlazar dos nodos con un peso aleatorio
+	 * @param a identificador del primer nodo
+	 * @param b identificador del segundo nodo
+	 * @return true si los nodos no estaban unidos previamente
+	 */
+	public boolean linkNodes(int a,int b) {
+		return linkNodes(new Edge(a,b));
+	}
+
+	/**
+	 * Funcion para enlazar dos nodos
+	 * @param a identificador del primer nodo
+	 * @param b identificador del segundo nodo
+	 * @param w valor del peso del enlace
+	 * @return true si los nodos no estaban unidos previamente
+	 */
+	public boolean linkNodes(int a,int b,int w) {
+		return linkNodes(new Edge(a,b,w));
+	}
+
+	/**
+	 * Funcion para enlazar dos nodos, agregandolos si no existen. La comprobacion de que la
+	 * arista no exista y la insercion (de la arista y de su inversa si el grafo es no dirigido)
+	 * se hacen de forma atomica, por lo que si varios hilos enlazan los mismos nodos solo uno lo consigue.
+	 * @param e arista del enlace
+	 * @return true si los nodos no estaban unidos previamente
+	 */
+	public boolean linkNodes(Edge e) {
+		Set<Edge> sa=nodes.computeIfAbsent(e.a,k -> new HashSet<Edge>());
+		Set<Edge> sb=nodes.computeIfAbsent(e.b,k -> new HashSet<Edge>());
+		int fa=franja(e.a);
+		if(dirigido) {
+			synchronized(candados[fa]) {
+				if(buscar(sa,e.b)!=null) {
+					return false;
+				}
+				sa.add(e);
+			}
+		}else {
+			int fb=franja(e.b);
+			synchronized(candados[Math.min(fa,fb)]) {
+				synchronized(candados[Math.max(fa,fb)]) {
+					if(buscar(sa,e.b)!=null) {
+						return false;
+					}
+					sa.add(e);
+					sb.add(e.inverse());
+				}
+			}
+		}
+		aristas.increment();
+		return true;
+	}
+
+	/**
+	 * Funcion para convertir el grafo en una instancia de Graph, sobre la cual pueden
+	 * ejecutarse los algoritmos. Debe llamarse cuando ya no haya hilos escribiendo.
+	 * Como las aristas ya son unicas y estan en los dos sentidos, cada conjunto se copia
+	 * directamente con putNode, sin pasar por linkNodes. Tiempo O(n+m).
+	 * @return Instancia tipo Graph con los mismos nodos y aristas
+	 */
+	public Graph toGraph() {
+		Graph g=new Graph(dirigido);
+		for (int id : nodes.keySet()) {
+			Set<Edge> copia;
+			synchronized(candados[franja(id)]) {
+				copia=new HashSet<Edge>(nodes.get(id));
+			}
+			g.putNode(id,copia);
+		}
+		return g;
+	}
+
+	/**
+	 * Funcion que recibe el tipo de grafo de un generador. Debe llamarse antes de agregar aristas.
+	 * @param dirigido true si el grafo es dirigido
+	 */
+	@Override
+	public void start(boolean dirigido) {
+		if(this.dirigido!=dirigido && aristas.sum()>0) {
+			System.err.println("El grafo ya tiene aristas, no se puede cambiar si es dirigido");
+			return;
+		}
+		this.dirigido=dirigido;
+	}
+
+	@Override
+	public void addEdge(int a,int b,int w) {
+		linkNodes(a,b,w);
+	}
+
+	@Override
+	public void finish() {
+	}
+}
@@ -0,0 +1,84 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Conjuntos disjuntos (union-find) sobre los enteros 0..n-1 que pueden usarse
+ * desde varios hilos a la vez. Las uniones se hacen con compareAndSet enlazando
+ * siempre la raiz de mayor indice a la de menor, y find comprime el camino a la mitad.
+ */
+public class ConcurrentUnionFind {
+
+	private final AtomicIntegerArray parent;
+
+	/**
+	 * Constructor donde cada elemento empieza en su propio conjunto
+	 * @param n numero de elementos
+	 */
+	public ConcurrentUnionFind(int n) {
+		parent=new AtomicIntegerArray(n);
+		for(int i=0;i<n;i++) {
+			parent.set(i,i);
+		}
+	}
+
+	/**
+	 * Funcion para obtener el representante del conjunto de un elemento
+	 * @param x elemento
+	 * @return raiz del conjunto
+	 */
+	public int find(int x) {
+		while(true) {
+			int p=parent.get(x);
+			if(p==x) {
+				return x;
+			}
+			int g=parent.get(p);
+			if(p!=g) {
+				parent.compareAndSet(x,p,g);
+			}
+			x=g;
+		}
+	}
+
+	/**
+	 * Funcion para unir los conjuntos de dos elementos
+	 * @param a elemento a
+	 * @param b elemento b
+	 * @return true si estaban en conjuntos distintos y se unieron con esta llamada
+	 */
+	public boolean union(int a,int b) {
+		while(true) {
+			a=find(a);
+			b=find(b);
+			if(a==b) {
+				return false;
+			}
+			if(a<b) {
+				int t=a;
+				a=b;
+				b=t;
+			}
+			if(parent.compareAndSet(a,a,b)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Funcion para comprobar si dos elementos estan en el mismo conjunto
+	 * @param a elemento a
+	 * @param b elemento b
+	 * @return true si comparten conjunto
+	 */
+	public boolean sameSet(int a,int b) {
+		while(true) {
+			a=find(a);
+			b=find(b);
+			if(a==b) {
+				return true;
+			}
+			if(parent.get(a)==a) { //a sigue siendo raiz, por lo tanto son conjuntos distintos
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,491 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Clase para responder muchas consultas de distancia minima entre dos nodos
+ * sobre un mismo grafo estatico usando jerarquias de contraccion.
+ * El preprocesamiento contrae los nodos uno a uno (ordenados por su diferencia de aristas)
+ * y agrega atajos solo cuando la busqueda de testigos no encuentra un camino alterno.
+ * Las consultas son dos busquedas de Dijkstra que solo suben en la jerarquia.
+ * Nota: los pesos de las aristas deben ser no negativos.
+ */
+public class ContractionHierarchy {
+
+	private static final int MAGIC=0x43480002; //version 2: pesos long
+	private static final int LIMITE_TESTIGO=100; //numero maximo de nodos que fija una busqueda de testigos
+
+	boolean dirigido;
+	private IdMap ids;
+	private int[] rank;
+
+	//aristas v->w con rank[w]>rank[v], usadas por la busqueda hacia adelante
+	private int[] fwdOffset,fwdTarget;
+	private long[] fwdW; //los atajos pueden sumar mas que un int
+	//aristas u->v con rank[u]>rank[v] guardadas en v, usadas por la busqueda hacia atras
+	private int[] bwdOffset,bwdTarget;
+	private long[] bwdW;
+
+	//variables de trabajo de las consultas, se reutilizan entre llamadas
+	private long[] distF,distB;
+	private int[] tocados;
+	private int numTocados;
+	private Heap heapF,heapB;
+
+	private ContractionHierarchy() {
+	}
+
+	/**
+	 * Funcion para construir la jerarquia de contraccion de un grafo.
+	 * @param g grafo del cual se construye la jerarquia
+	 * @return Instancia con el grafo aumentado con atajos
+	 */
+	public static ContractionHierarchy build(Graph g) {
+		ContractionHierarchy ch=new ContractionHierarchy();
+		int n=g.getSize();
+		int i=0;
+		ch.dirigido=g.dirigido;
+		ch.ids=IdMap.of(g.getNodes());
+
+		ArrayList<HashMap<Integer, Long>> out = new ArrayList<>(n);
+		ArrayList<HashMap<Integer, Long>> in = new ArrayList<>(n);
+		for(i=0;i<n;i++) {
+			out.add(new HashMap<>());
+			in.add(new HashMap<>());
+		}
+		for(i=0;i<n;i++) {
+			for (Edge e : g.getNeighbors(ch.ids.getIntId(i))) {
+				int b=ch.ids.indexOf(e.b);
+				if(b!=i) {
+					out.get(i).merge(b,(long)e.w,Math::min);
+					in.get(b).merge(i,(long)e.w,Math::min);
+				}
+			}
+		}
+
+		Contractor c=new Contractor(n,out,in);
+		PriorityQueue<long[]> queue = new PriorityQueue<>((x,y) -> Long.compare(x[0],y[0]));
+		for(i=0;i<n;i++) {
+			queue.add(new long[] {c.prioridad(i),i});
+		}
+
+		ArrayList<long[]> fwd = new ArrayList<>();
+		ArrayList<long[]> bwd = new ArrayList<>();
+		ch.rank=new int[n];
+		int r=0;
+		while(!queue.isEmpty()) {
+			int v=(int)queue.poll()[1];
+			if(c.contraido[v]) {
+				continue;
+			}
+			long p=c.prioridad(v);
+			if(!queue.isEmpty() && p>queue.peek()[0]) { //actualizacion perezosa de la prioridad
+				queue.add(new long[] {p,v});
+				continue;
+			}
+			for (Map.Entry<Integer,Long> w : out.get(v).entrySet()) {
+				fwd.add(new long[] {v,w.getKey(),w.getValue()});
+			}
+			for (Map.Entry<Integer,Long> u : in.get(v).entrySet()) {
+				bwd.add(new long[] {v,u.getKey(),u.getValue()});
+			}
+			c.contraer(v,false);
+			ch.rank[v]=r++;
+		}
+
+		ch.fwdOffset=new int[n+1];
+		ch.fwdTarget=new int[fwd.size()];
+		ch.fwdW=new long[fwd.size()];
+		toCSR(fwd,ch.fwdOffset,ch.fwdTarget,ch.fwdW);
+		ch.bwdOffset=new int[n+1];
+		ch.bwdTarget=new int[bwd.size()];
+		ch.bwdW=new long[bwd.size()];
+		toCSR(bwd,ch.bwdOffset,ch.bwdTarget,ch.bwdW);
+		return ch;
+	}
+
+	/**
+	 * Funcion auxiliar para acomodar una lista de aristas {origen, destino, peso}
+	 * en arreglos de adyacencia compactos (CSR)
+	 */
+	private static void toCSR(ArrayList<long[]> edges,int[] offset,int[] target,long[] w) {
+		for (long[] e : edges) {
+			offset[(int)e[0]+1]++;
+		}
+		for(int i=1;i<offset.length;i++) {
+			offset[i]+=offset[i-1];
+		}
+		int[] pos=Arrays.copyOf(offset,offset.length);
+		for (long[] e : edges) {
+			int k=pos[(int)e[0]]++;
+			target[k]=(int)e[1];
+			w[k]=e[2];
+		}
+	}
+
+	/**
+	 * Funcion para obtener el numero de atajos y aristas del grafo aumentado
+	 * @return numero de aristas hacia arriba en la jerarquia
+	 */
+	public int getEdgeCount() {
+		return fwdTarget.length+bwdTarget.length;
+	}
+
+	/**
+	 * Funcion para obtener la distancia minima entre dos nodos.
+	 * No es segura para llamarse desde varios hilos sobre la misma instancia.
+	 * @param s identificador del nodo origen
+	 * @param t identificador del nodo destino
+	 * @return distancia minima, o Long.MAX_VALUE si no existe un camino
+	 */
+	public long getDistance(int s,int t) {
+		int a=ids.indexOf(s);
+		int b=ids.indexOf(t);
+		if(a<0 || b<0) {
+			System.err.println("El nodo no existe");
+			return Long.MAX_VALUE;
+		}
+		if(a==b) {
+			return 0;
+		}
+		if(distF==null) {
+			distF=new long[ids.size()];
+			distB=new long[ids.size()];
+			Arrays.fill(distF,Long.MAX_VALUE);
+			Arrays.fill(distB,Long.MAX_VALUE);
+			tocados=new int[ids.size()];
+			heapF=new Heap();
+			heapB=new Heap();
+		}
+		heapF.clear();
+		heapB.clear();
+		distF[a]=0;
+		distB[b]=0;
+		tocados[numTocados++]=a;
+		tocados[numTocados++]=b;
+		heapF.push(0,a);
+		heapB.push(0,b);
+		long best=Long.MAX_VALUE;
+
+		while(true) {
+			long kf=heapF.isEmpty() ? Long.MAX_VALUE : heapF.peekKey();
+			long kb=heapB.isEmpty() ? Long.MAX_VALUE : heapB.peekKey();
+			if(kf>=best && kb>=best) { //ninguna busqueda puede mejorar el mejor camino
+				break;
+			}
+			if(kf<=kb) {
+				best=paso(heapF,distF,distB,fwdOffset,fwdTarget,fwdW,best);
+			}else {
+				best=paso(heapB,distB,distF,bwdOffset,bwdTarget,bwdW,best);
+			}
+		}
+
+		for(int i=0;i<numTocados;i++) {
+			distF[tocados[i]]=Long.MAX_VALUE;
+			distB[tocados[i]]=Long.MAX_VALUE;
+		}
+		numTocados=0;
+		return best;
+	}
+
+	/**
+	 * Funcion que fija un nodo de una de las dos busquedas y relaja sus aristas hacia arriba
+	 * @return el mejor valor conocido de la distancia
+	 */
+	private long paso(Heap heap,long[] dist,long[] otra,int[] offset,int[] target,long[] w,long best) {
+		long k=heap.peekKey();
+		int v=heap.pop();
+		if(k>dist[v]) { //entrada obsoleta
+			return best;
+		}
+		if(otra[v]!=Long.MAX_VALUE && k+otra[v]<best) {
+			best=k+otra[v];
+		}
+		for(int j=offset[v];j<offset[v+1];j++) {
+			int u=target[j];
+			long d=k+w[j];
+			if(d<dist[u]) {
+				if(dist[u]==Long.MAX_VALUE && otra[u]==Long.MAX_VALUE) {
+					tocados[numTocados++]=u;
+				}
+				dist[u]=d;
+				heap.push(d,u);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Funcion para guardar la jerarquia en un archivo binario
+	 * @param filename Nombre del archivo en el que se guardara
+	 */
+	public void saveFile(String filename) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeBoolean(dirigido);
+			out.writeInt(ids.size());
+			for(int i=0;i<ids.size();i++) {
+				out.writeInt(ids.getIntId(i));
+				out.writeInt(rank[i]);
+			}
+			writeCSR(out,fwdOffset,fwdTarget,fwdW);
+			writeCSR(out,bwdOffset,bwdTarget,bwdW);
+			System.out.println("Jerarquia guardada correctamente como "+filename);
+		} catch (IOException e) {
+			System.out.println("Ha ocurrido un error al guardar la jerarquia: "+filename);
+			e.printStackTrace();
+		}
+	}
+
+	private static void writeCSR(DataOutputStream out,int[] offset,int[] target,long[] w) throws IOException {
+		out.writeInt(target.length);
+		for (int o : offset) {
+			out.writeInt(o);
+		}
+		for(int i=0;i<target.length;i++) {
+			out.writeInt(target[i]);
+			out.writeLong(w[i]);
+		}
+	}
+
+	/**
+	 * Funcion para cargar una jerarquia guardada con saveFile
+	 * @param filename Nombre del archivo
+	 * @return instancia tipo ContractionHierarchy, o null si hubo un error
+	 */
+	public static ContractionHierarchy loadFile(String filename) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+			if(in.readInt()!=MAGIC) {
+				System.err.println("El archivo no contiene una jerarquia de contraccion: "+filename);
+				return null;
+			}
+			ContractionHierarchy ch=new ContractionHierarchy();
+			ch.dirigido=in.readBoolean();
+			int n=in.readInt();
+			ch.ids=new IdMap(n);
+			ch.rank=new int[n];
+			for(int i=0;i<n;i++) {
+				ch.ids.intern(in.readInt());
+				ch.rank[i]=in.readInt();
+			}
+			int m=in.readInt();
+			ch.fwdOffset=new int[n+1];
+			ch.fwdTarget=new int[m];
+			ch.fwdW=new long[m];
+			readCSR(in,ch.fwdOffset,ch.fwdTarget,ch.fwdW);
+			m=in.readInt();
+			ch.bwdOffset=new int[n+1];
+			ch.bwdTarget=new int[m];
+			ch.bwdW=new long[m];
+			readCSR(in,ch.bwdOffset,ch.bwdTarget,ch.bwdW);
+			return ch;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static void readCSR(DataInputStream in,int[] offset,int[] target,long[] w) throws IOException {
+		for(int i=0;i<offset.length;i++) {
+			offset[i]=in.readInt();
+		}
+		for(int i=0;i<target.length;i++) {
+			target[i]=in.readInt();
+			w[i]=in.readLong();
+		}
+	}
+
+
+	/**
+	 * Clase auxiliar con el estado de la contraccion: adyacencias de los nodos
+	 * aun no contraidos y arreglos de trabajo para la busqueda de testigos.
+	 */
+	private static class Contractor {
+		ArrayList<HashMap<Integer, Long>> out;
+		ArrayList<HashMap<Integer, Long>> in;
+		boolean[] contraido;
+		int[] eliminados; //numero de vecinos ya contraidos de cada nodo
+		long[] dist;
+		int[] tocados;
+		int numTocados;
+
+		Contractor(int n,ArrayList<HashMap<Integer, Long>> out,ArrayList<HashMap<Integer, Long>> in) {
+			this.out=out;
+			this.in=in;
+			contraido=new boolean[n];
+			eliminados=new int[n];
+			dist=new long[n];
+			Arrays.fill(dist,Long.MAX_VALUE);
+			tocados=new int[n];
+		}
+
+		/**
+		 * Prioridad del nodo: diferencia de aristas mas el numero de vecinos contraidos
+		 */
+		long prioridad(int v) {
+			return contraer(v,true)-in.get(v).size()-out.get(v).size()+eliminados[v];
+		}
+
+		/**
+		 * Contrae el nodo v, o solo cuenta los atajos que se necesitarian si simular es true
+		 * @return numero de atajos
+		 */
+		int contraer(int v,boolean simular) {
+			int atajos=0;
+			for (Map.Entry<Integer,Long> eu : in.get(v).entrySet()) {
+				int u=eu.getKey();
+				long wu=eu.getValue();
+				long limite=0;
+				for (Map.Entry<Integer,Long> ew : out.get(v).entrySet()) {
+					if(ew.getKey()!=u && wu+ew.getValue()>limite) {
+						limite=wu+ew.getValue();
+					}
+				}
+				testigos(u,v,limite);
+				for (Map.Entry<Integer,Long> ew : out.get(v).entrySet()) {
+					int w=ew.getKey();
+					long via=wu+ew.getValue();
+					if(w!=u && dist[w]>via) {
+						atajos++;
+						if(!simular) {
+							out.get(u).merge(w,via,Math::min);
+							in.get(w).merge(u,via,Math::min);
+						}
+					}
+				}
+				limpiar();
+			}
+			if(!simular) {
+				for (int u : in.get(v).keySet()) {
+					out.get(u).remove(v);
+					eliminados[u]++;
+				}
+				for (int w : out.get(v).keySet()) {
+					in.get(w).remove(v);
+					eliminados[w]++;
+				}
+				contraido[v]=true;
+			}
+			return atajos;
+		}
+
+		/**
+		 * Busqueda de Dijkstra limitada desde u que ignora el nodo v. Deja en dist
+		 * las distancias encontradas que no superan el limite.
+		 */
+		private void testigos(int u,int v,long limite) {
+			PriorityQueue<long[]> queue = new PriorityQueue<>((x,y) -> Long.compare(x[0],y[0]));
+			dist[u]=0;
+			tocados[numTocados++]=u;
+			queue.add(new long[] {0,u});
+			int fijados=0;
+			while(!queue.isEmpty() && fijados<LIMITE_TESTIGO) {
+				long[] top=queue.poll();
+				int x=(int)top[1];
+				if(top[0]>dist[x]) {
+					continue;
+				}
+				if(top[0]>limite) {
+					break;
+				}
+				fijados++;
+				for (Map.Entry<Integer,Long> e : out.get(x).entrySet()) {
+					int y=e.getKey();
+					long d=top[0]+e.getValue();
+					if(y!=v && d<dist[y]) {
+						if(dist[y]==Long.MAX_VALUE) {
+							tocados[numTocados++]=y;
+						}
+						dist[y]=d;
+						queue.add(new long[] {d,y});
+					}
+				}
+			}
+		}
+
+		private void limpiar() {
+			for(int i=0;i<numTocados;i++) {
+				dist[tocados[i]]=Long.MAX_VALUE;
+			}
+			numTocados=0;
+		}
+	}
+
+
+	/**
+	 * Monticulo binario de minimos con llaves long y valores int.
+	 * No soporta decrementar llaves, por lo que se insertan duplicados y las
+	 * entradas obsoletas se descartan al sacarlas.
+	 */
+	private static class Heap {
+		long[] keys=new long[64];
+		int[] vals=new int[64];
+		int size;
+
+		boolean isEmpty() {
+			return size==0;
+		}
+
+		void clear() {
+			size=0;
+		}
+
+		long peekKey() {
+			return keys[0];
+		}
+
+		void push(long k,int v) {
+			if(size==keys.length) {
+				keys=Arrays.copyOf(keys,size*2);
+				vals=Arrays.copyOf(vals,size*2);
+			}
+			int i=size++;
+			while(i>0) {
+				int p=(i-1)/2;
+				if(keys[p]<=k) {
+					break;
+				}
+				keys[i]=keys[p];
+				vals[i]=vals[p];
+				i=p;
+			}
+			keys[i]=k;
+			vals[i]=v;
+		}
+
+		int pop() {
+			int res=vals[0];
+			size--;
+			long k=keys[size];
+			int v=vals[size];
+			int i=0;
+			while(true) {
+				int c=2*i+1;
+				if(c>=size) {
+					break;
+				}
+				if(c+1<size && keys[c+1]<keys[c]) {
+					c++;
+				}
+				if(keys[c]>=k) {
+					break;
+				}
+				keys[i]=keys[c];
+				vals[i]=vals[c];
+				i=c;
+			}
+			keys[i]=k;
+			vals[i]=v;
+			return res;
+		}
+	}
+}
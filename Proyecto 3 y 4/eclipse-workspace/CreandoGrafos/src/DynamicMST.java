@@ -0,0 +1,145 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Clase que mantiene el bosque de expansion minima de un grafo no dirigido
+ * mientras se le agregan aristas. Al insertar la arista a-b:
+ * si a y b estan en arboles distintos la arista se agrega al bosque; si ya estan
+ * conectados, se busca la arista mas pesada del ciclo que se formaria y se
+ * reemplaza cuando la nueva es mas ligera. La arista mas pesada del camino se
+ * obtiene con un arbol link-cut, por lo que cada insercion cuesta O(log n) amortizado.
+ */
+public class DynamicMST {
+
+	private LinkCutTree lct = new LinkCutTree(64);
+	private IdMap ids = new IdMap();
+	private int[] vertices = new int[64]; //nodo del arbol link-cut de cada indice de ids
+	//datos de las aristas del bosque, indexados por su nodo en el arbol link-cut
+	private int[] ea = new int[64];
+	private int[] eb = new int[64];
+	private int[] ew = new int[64];
+	private ArrayList<Integer> libres = new ArrayList<>();
+	private Graph arbol = new Graph(false);
+	private long peso;
+
+	/**
+	 * Constructor de un bosque vacio
+	 */
+	public DynamicMST() {
+	}
+
+	/**
+	 * Constructor que inserta todas las aristas de un grafo
+	 * @param g grafo no dirigido del cual se obtiene el bosque inicial
+	 */
+	public DynamicMST(Graph g) {
+		if(g.dirigido) {
+			System.err.println("El arbol de expansion minima requiere un grafo no dirigido");
+		}
+		for (int node : g.getNodes()) {
+			addNode(node);
+		}
+		for (int node : g.getNodes()) {
+			for (Edge e : g.getNeighbors(node)) {
+				if(e.a<e.b) {
+					linkNodes(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Funcion para agregar un nodo aislado al bosque
+	 * @param id identificador del nodo
+	 */
+	public void addNode(int id) {
+		vertex(id);
+	}
+
+	private int vertex(int id) {
+		int i=ids.indexOf(id);
+		if(i<0) {
+			i=ids.intern(id);
+			if(i>=vertices.length) {
+				vertices=Arrays.copyOf(vertices,vertices.length*2);
+			}
+			vertices[i]=lct.addNode(Long.MIN_VALUE);
+			arbol.addNode(id);
+		}
+		return vertices[i];
+	}
+
+	/**
+	 * Funcion para insertar una arista
+	 * @param a	identificador del primer nodo
+	 * @param b	identificador del segundo nodo
+	 * @param w valor del peso del enlace
+	 * @return retorna true si la arista entro al bosque
+	 */
+	public boolean linkNodes(int a,int b,int w) {
+		return linkNodes(new Edge(a,b,w));
+	}
+
+	/**
+	 * Funcion para insertar una arista
+	 * @param e arista a insertar
+	 * @return retorna true si la arista entro al bosque
+	 */
+	public boolean linkNodes(Edge e) {
+		int u=vertex(e.a);
+		int v=vertex(e.b);
+		if(u==v) {
+			return false;
+		}
+		if(lct.connected(u,v)) {
+			int m=lct.pathMax(u,v);
+			if(lct.getValue(m)<=e.w) {
+				return false;
+			}
+			int x=vertices[ids.indexOf(ea[m])];
+			int y=vertices[ids.indexOf(eb[m])];
+			lct.cut(x,m);
+			lct.cut(m,y);
+			arbol.dropEdge(new Edge(ea[m],eb[m],ew[m]));
+			peso-=ew[m];
+			libres.add(m);
+		}
+		int k;
+		if(libres.size()>0) {
+			k=libres.remove(libres.size()-1);
+			lct.reset(k,e.w);
+		}else {
+			k=lct.addNode(e.w);
+			if(k>=ea.length) {
+				ea=Arrays.copyOf(ea,k*2);
+				eb=Arrays.copyOf(eb,k*2);
+				ew=Arrays.copyOf(ew,k*2);
+			}
+		}
+		ea[k]=e.a;
+		eb[k]=e.b;
+		ew[k]=e.w;
+		lct.link(u,k);
+		lct.link(k,v);
+		arbol.linkNodes(e.a,e.b,e.w);
+		peso+=e.w;
+		return true;
+	}
+
+	/**
+	 * Funcion para obtener el bosque de expansion minima actual.
+	 * La instancia es la que mantiene esta clase, no debe modificarse.
+	 * @return Instancia tipo Graph con el bosque
+	 */
+	public Graph getTree() {
+		return arbol;
+	}
+
+	/**
+	 * Funcion para obtener la suma de los pesos del bosque
+	 * @return peso del bosque
+	 */
+	public long getWeight() {
+		return peso;
+	}
+}
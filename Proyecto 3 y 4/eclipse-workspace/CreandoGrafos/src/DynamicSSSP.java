@@ -0,0 +1,278 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Clase que mantiene las distancias minimas y los padres del arbol de caminos
+ * minimos desde un nodo raiz mientras el grafo recibe inserciones y eliminaciones
+ * de aristas. Las actualizaciones siguen la idea de Ramalingam y Reps: solo se
+ * recalcula la region afectada por el cambio en lugar de todo el grafo.
+ * Las modificaciones deben hacerse por medio de esta clase; si el grafo se modifica
+ * por otro lado, se detecta con su version y se recalcula todo.
+ * Nota: los pesos de las aristas deben ser no negativos.
+ */
+public class DynamicSSSP {
+
+	private Graph g;
+	private int raiz;
+	private long version;
+	private HashMap<Integer, Long> distancia = new HashMap<>();
+	private HashMap<Integer, Integer> padre = new HashMap<>();
+	private HashMap<Integer, Set<Integer>> hijos = new HashMap<>();
+	private HashMap<Integer, Set<Edge>> entrantes = new HashMap<>(); //solo se usa en grafos dirigidos
+
+	/**
+	 * Constructor que calcula las distancias iniciales desde la raiz
+	 * @param g grafo sobre el cual se mantienen las distancias
+	 * @param raiz identificador del nodo fuente
+	 */
+	public DynamicSSSP(Graph g,int raiz) {
+		this.g=g;
+		this.raiz=raiz;
+		if(!g.existsNode(raiz)) {
+			g.addNode(raiz);
+		}
+		recalcular();
+	}
+
+	/**
+	 * Funcion que calcula desde cero las distancias con el algoritmo de Dijkstra
+	 */
+	private void recalcular() {
+		distancia.clear();
+		padre.clear();
+		hijos.clear();
+		entrantes.clear();
+		for (int node : g.getNodes()) {
+			distancia.put(node,Long.MAX_VALUE);
+			hijos.put(node,new HashSet<Integer>());
+		}
+		if(g.dirigido) {
+			for (int node : g.getNodes()) {
+				entrantes.putIfAbsent(node,new HashSet<Edge>());
+				for (Edge e : g.getNeighbors(node)) {
+					entrantes.computeIfAbsent(e.b,k -> new HashSet<Edge>()).add(e);
+				}
+			}
+		}
+		PriorityQueue<long[]> queue = new PriorityQueue<>((x,y) -> Long.compare(x[0],y[0]));
+		distancia.put(raiz,0L);
+		queue.add(new long[] {0,raiz});
+		propagar(queue);
+		version=g.getVersion();
+	}
+
+	/**
+	 * Funcion que vacia la cola relajando aristas mientras las distancias mejoren.
+	 * @param queue cola de prioridad con pares {distancia, nodo}
+	 */
+	private void propagar(PriorityQueue<long[]> queue) {
+		while(!queue.isEmpty()) {
+			long[] top=queue.poll();
+			int i=(int)top[1];
+			if(top[0]>distancia.get(i)) {
+				continue;
+			}
+			for (Edge e : g.getNeighbors(i)) {
+				long d=top[0]+e.w;
+				if(d<distancia.get(e.b)) {
+					setPadre(e.b,i);
+					distancia.put(e.b,d);
+					queue.add(new long[] {d,e.b});
+				}
+			}
+		}
+	}
+
+	private void setPadre(int v,Integer p) {
+		Integer anterior=padre.get(v);
+		if(anterior!=null) {
+			hijos.get(anterior).remove(v);
+		}
+		if(p==null) {
+			padre.remove(v);
+		}else {
+			padre.put(v,p);
+			hijos.get(p).add(v);
+		}
+	}
+
+	private void sincronizar() {
+		if(g.getVersion()!=version) {
+			recalcular();
+		}
+	}
+
+	/**
+	 * Funcion para enlazar dos nodos y reparar las distancias que disminuyen
+	 * @param a identificador del nodo a
+	 * @param b identificador del nodo b
+	 * @param w peso del enlace
+	 * @return retorna true si los nodos no estaban unidos previamente
+	 */
+	public boolean linkNodes(int a,int b,int w) {
+		sincronizar();
+		for (int node : new int[] {a,b}) {
+			if(!g.existsNode(node)) {
+				g.addNode(node);
+				distancia.put(node,Long.MAX_VALUE);
+				hijos.put(node,new HashSet<Integer>());
+				if(g.dirigido) {
+					entrantes.put(node,new HashSet<Edge>());
+				}
+			}
+		}
+		Edge e=new Edge(a,b,w);
+		if(!g.linkNodes(e)) {
+			version=g.getVersion();
+			return false;
+		}
+		version=g.getVersion();
+		if(g.dirigido) {
+			entrantes.get(b).add(e);
+		}
+		PriorityQueue<long[]> queue = new PriorityQueue<>((x,y) -> Long.compare(x[0],y[0]));
+		relajar(a,b,w,queue);
+		if(!g.dirigido) {
+			relajar(b,a,w,queue);
+		}
+		propagar(queue);
+		return true;
+	}
+
+	private void relajar(int a,int b,int w,PriorityQueue<long[]> queue) {
+		long da=distancia.get(a);
+		if(da!=Long.MAX_VALUE && da+w<distancia.get(b)) {
+			distancia.put(b,da+w);
+			setPadre(b,a);
+			queue.add(new long[] {da+w,b});
+		}
+	}
+
+	/**
+	 * Funcion para eliminar la arista a-b y reparar las distancias que aumentan
+	 * @param a identificador del nodo a
+	 * @param b identificador del nodo b
+	 * @return retorna true si la arista existia
+	 */
+	public boolean dropEdge(int a,int b) {
+		sincronizar();
+		int w=g.getW(a,b);
+		if(w==Integer.MAX_VALUE || !g.isLinked(a,b)) {
+			return false;
+		}
+		Edge e=new Edge(a,b,w);
+		g.dropEdge(e);
+		version=g.getVersion();
+		if(g.dirigido) {
+			entrantes.get(b).remove(e);
+		}
+		ArrayList<Integer> afectados = new ArrayList<>();
+		if(Integer.valueOf(a).equals(padre.get(b))) {
+			afectados.add(b);
+		}else if(!g.dirigido && Integer.valueOf(b).equals(padre.get(a))) {
+			afectados.add(a);
+		}
+		if(afectados.size()>0) {
+			reparar(afectados.get(0));
+		}
+		return true;
+	}
+
+	/**
+	 * Funcion que recalcula las distancias del subarbol que colgaba de v
+	 * usando solo los nodos que no fueron afectados como punto de partida.
+	 */
+	private void reparar(int v) {
+		HashSet<Integer> afectados = new HashSet<>();
+		ArrayList<Integer> pila = new ArrayList<>();
+		pila.add(v);
+		while(pila.size()!=0) {
+			int i=pila.remove(pila.size()-1);
+			afectados.add(i);
+			pila.addAll(hijos.get(i));
+		}
+		for (int i : afectados) {
+			setPadre(i,null);
+			distancia.put(i,Long.MAX_VALUE);
+		}
+		PriorityQueue<long[]> queue = new PriorityQueue<>((x,y) -> Long.compare(x[0],y[0]));
+		for (int i : afectados) {
+			long mejor=Long.MAX_VALUE;
+			Integer p=null;
+			for (Edge e : getEntrantes(i)) {
+				long d=distancia.get(e.a);
+				if(!afectados.contains(e.a) && d!=Long.MAX_VALUE && d+e.w<mejor) {
+					mejor=d+e.w;
+					p=e.a;
+				}
+			}
+			if(p!=null) {
+				distancia.put(i,mejor);
+				setPadre(i,p);
+				queue.add(new long[] {mejor,i});
+			}
+		}
+		propagar(queue);
+	}
+
+	/**
+	 * Funcion para obtener las aristas que llegan a un nodo, como aristas u-&gt;v
+	 */
+	private Set<Edge> getEntrantes(int v) {
+		if(g.dirigido) {
+			return entrantes.get(v);
+		}
+		Set<Edge> res = new HashSet<>();
+		for (Edge e : g.getNeighbors(v)) {
+			res.add(e.inverse());
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener la distancia minima de la raiz a un nodo
+	 * @param n identificador del nodo
+	 * @return distancia minima, o Long.MAX_VALUE si no es alcanzable
+	 */
+	public long getDistance(int n) {
+		sincronizar();
+		Long d=distancia.get(n);
+		return d==null ? Long.MAX_VALUE : d;
+	}
+
+	/**
+	 * Funcion para obtener el padre de un nodo en el arbol de caminos minimos
+	 * @param n identificador del nodo
+	 * @return identificador del padre, o null si es la raiz o no es alcanzable
+	 */
+	public Integer getParent(int n) {
+		sincronizar();
+		return padre.get(n);
+	}
+
+	/**
+	 * Funcion para obtener el arbol de caminos minimos actual. Las etiquetas
+	 * de los nodos llevan la distancia a la raiz, igual que en getDijkstra.
+	 * @return Instancia tipo Graph con el arbol
+	 */
+	public Graph getTree() {
+		sincronizar();
+		Graph G = new Graph(g.dirigido);
+		HashMap<Integer, Long> d=new HashMap<>();
+		for (int node : distancia.keySet()) {
+			if(distancia.get(node)!=Long.MAX_VALUE) {
+				G.addNode(node);
+				d.put(node,distancia.get(node));
+			}
+		}
+		G.setLabelProvider(node -> node+"_"+d.get(node));
+		for (int node : padre.keySet()) {
+			int p=padre.get(node);
+			G.linkNodes(p,node,g.getW(p,node));
+		}
+		return G;
+	}
+}
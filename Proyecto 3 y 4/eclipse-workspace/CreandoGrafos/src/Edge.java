@@ -42,7 +42,16 @@ public class Edge{
 	public Edge(int a,int b) {
 		this.a=a;
 		this.b=b;
-		this.w=r.nextInt(100)+1;
+		this.w=randomW();
+	}
+	
+	/**
+	 * Funcion para obtener un peso aleatorio entre 1 y 100, igual que el
+	 * que recibe una arista creada sin peso.
+	 * @return peso aleatorio
+	 */
+	public static int randomW() {
+		return r.nextInt(100)+1;
 	}
 	
 	/**
@@ -70,6 +79,11 @@ public class Edge{
         return a==c.a && b==c.b && w==c.w;
 	}
 	
+	@Override
+	public int hashCode() {
+		return (a*31+b)*31+w;
+	}
+	
     @Override
 	public String toString() {
 		return a+"--"+b+" ["+w+"]";
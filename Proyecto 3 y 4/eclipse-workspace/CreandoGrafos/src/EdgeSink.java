@@ -0,0 +1,42 @@
+/**
+ * Destino de los nodos y aristas que producen los generadores de grafos.
+ * Permite generar grafos sin construirlos en memoria, por ejemplo escribiendolos
+ * directo a un archivo conforme se producen. Los generadores llaman primero
+ * a start, despues addNode y addEdge en cualquier orden y al final finish.
+ * Los errores de escritura se reportan como UncheckedIOException. Si la generacion
+ * se cancela se llama a cancel en lugar de finish.
+ */
+public interface EdgeSink {
+
+	/**
+	 * Funcion que se llama antes de enviar nodos y aristas
+	 * @param dirigido true si el grafo que se genera es dirigido
+	 */
+	void start(boolean dirigido);
+
+	/**
+	 * Funcion para recibir un nodo
+	 * @param id identificador del nodo
+	 */
+	void addNode(int id);
+
+	/**
+	 * Funcion para recibir una arista. En grafos no dirigidos cada arista se envia una sola vez.
+	 * @param a nodo a
+	 * @param b nodo b
+	 * @param w peso de la arista
+	 */
+	void addEdge(int a,int b,int w);
+
+	/**
+	 * Funcion que se llama cuando ya no hay mas nodos ni aristas
+	 */
+	void finish();
+
+	/**
+	 * Funcion que se llama si la generacion se cancela antes de terminar.
+	 * Por defecto no hace nada.
+	 */
+	default void cancel() {
+	}
+}
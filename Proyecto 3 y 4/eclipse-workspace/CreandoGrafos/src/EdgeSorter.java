@@ -0,0 +1,113 @@
+import java.util.stream.IntStream;
+
+/**
+ * Clase con funciones para ordenar aristas por su peso entero sin comparaciones.
+ * Si el rango de pesos es pequeno se usa ordenamiento por conteo (una sola pasada);
+ * si es amplio, radix LSD de 16 bits por pasada. Ambos son estables y trabajan
+ * sobre arreglos primitivos. Con la opcion paralela, el histograma y la
+ * distribucion de cada pasada se reparten en bloques entre los hilos.
+ */
+public class EdgeSorter {
+
+	private static final int BITS=16;
+	private static final int BLOQUE_MINIMO=1<<14; //elementos minimos por bloque en modo paralelo
+
+	/**
+	 * Funcion para obtener el orden de un arreglo de pesos.
+	 * @param w pesos de las aristas
+	 * @param asc true para orden ascendente, false para descendente
+	 * @param paralelo true para repartir el trabajo entre varios hilos
+	 * @return permutacion de indices tal que w[orden[0]], w[orden[1]], ... queda ordenado
+	 */
+	public static int[] sort(int[] w,boolean asc,boolean paralelo) {
+		int n=w.length;
+		int[] orden=new int[n];
+		for(int i=0;i<n;i++) {
+			orden[i]=i;
+		}
+		if(n<2) {
+			return orden;
+		}
+		int min=w[0];
+		int max=w[0];
+		for (int x : w) {
+			if(x<min) min=x;
+			if(x>max) max=x;
+		}
+		long rango=(long)max-min+1;
+		//llaves sin signo: distancia al menor peso (o al mayor si es descendente)
+		int[] u=new int[n];
+		for(int i=0;i<n;i++) {
+			u[i]=asc ? w[i]-min : max-w[i];
+		}
+		if(rango==1) {
+			return orden;
+		}
+		//por conteo solo si los histogramas (uno por bloque) no pasan de n enteros o de los que usaria radix
+		int bloques=bloques(n,paralelo);
+		if(bloques*rango<=Math.max(n,(long)bloques<<BITS)) {
+			return pasada(orden,u,0,-1,(int)rango,paralelo);
+		}
+		int bits=64-Long.numberOfLeadingZeros(rango-1);
+		for(int shift=0;shift<bits;shift+=BITS) {
+			orden=pasada(orden,u,shift,(1<<BITS)-1,1<<BITS,paralelo);
+		}
+		return orden;
+	}
+
+	/**
+	 * Una pasada estable de ordenamiento por conteo sobre el digito (u &gt;&gt;&gt; shift) &amp; mask
+	 * @param orden orden actual
+	 * @param u llaves sin signo
+	 * @param shift desplazamiento del digito
+	 * @param mask mascara del digito
+	 * @param cubetas numero de valores posibles del digito
+	 * @param paralelo true para repartir en bloques entre hilos
+	 * @return nuevo orden
+	 */
+	private static int[] pasada(int[] orden,int[] u,int shift,int mask,int cubetas,boolean paralelo) {
+		int n=orden.length;
+		int bloques=bloques(n,paralelo);
+		final int tam=(n+bloques-1)/bloques;
+		int[][] cuenta=new int[bloques][cubetas];
+		IntStream rango=IntStream.range(0,bloques);
+		if(bloques>1) rango=rango.parallel();
+		rango.forEach(b -> {
+			int[] c=cuenta[b];
+			int fin=Math.min(n,(b+1)*tam);
+			for(int i=b*tam;i<fin;i++) {
+				c[(u[orden[i]]>>>shift)&mask]++;
+			}
+		});
+		//las posiciones de cada bloque quedan despues de las de los bloques anteriores en la misma cubeta
+		int pos=0;
+		for(int d=0;d<cubetas;d++) {
+			for(int b=0;b<bloques;b++) {
+				int c=cuenta[b][d];
+				cuenta[b][d]=pos;
+				pos+=c;
+			}
+		}
+		int[] res=new int[n];
+		rango=IntStream.range(0,bloques);
+		if(bloques>1) rango=rango.parallel();
+		rango.forEach(b -> {
+			int[] c=cuenta[b];
+			int fin=Math.min(n,(b+1)*tam);
+			for(int i=b*tam;i<fin;i++) {
+				res[c[(u[orden[i]]>>>shift)&mask]++]=orden[i];
+			}
+		});
+		return res;
+	}
+
+	/**
+	 * Numero de bloques en que se reparte una pasada, cada uno con su propio histograma
+	 */
+	private static int bloques(int n,boolean paralelo) {
+		if(!paralelo) {
+			return 1;
+		}
+		return Math.max(1,Math.min(Runtime.getRuntime().availableProcessors(),n/BLOQUE_MINIMO));
+	}
+}
@@ -1,28 +1,39 @@
 import java.awt.geom.Point2D;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
-public class Graph {
+public class Graph implements AdjacencySource {
 	
 	boolean dirigido;
 	private HashMap<Integer, Set<Edge>> nodes = new HashMap<>();
-	private HashMap<Integer, String> labels = new HashMap<>();
+	private HashMap<Integer, String> labels = new HashMap<>(); //solo las etiquetas distintas del identificador
+	private IntFunction<String> labelProvider; //etiquetas calculadas al exportar, puede ser null
+	private long version; //contador de modificaciones de la estructura del grafo
+	private PathCache cache; //se crea en la primera consulta de getDijkstra o getBFS
+	private boolean sinCache; //true si se desactivo con setPathCache(null)
+	private IdMap ids; //indices densos de los nodos; se crea en el primer getIdMap y despues se mantiene al agregar nodos
 
 	
 	/**
-	 * Constructor sin parmetros, por default es un grafo no dirigido.
+	 * Constructor sin parámetros, por default es un grafo no dirigido.
 	 */
 	public Graph() {
 		dirigido=false;
@@ -30,27 +41,39 @@ public class Graph {
 	
 	/**
 	 * Constructor que define si el grafo es dirigido o no
-	 * @param dirigido	si el valor es true, ser un grafo dirigido
+	 * @param dirigido	si el valor es true, será un grafo dirigido
 	 */
 	public Graph(boolean dirigido) {
 		this.dirigido=dirigido;
 	}
 	
 	/**
-	 * Funcin para glonar un grafo
+	 * Función para glonar un grafo. Cada nodo recibe su propio conjunto de aristas,
+	 * asi que modificar la copia no modifica el original.
 	 * @return Copia del grafo
 	 */
 	public Graph clone() {
 		Graph g = new Graph(this.dirigido);
 		for ( int node : nodes.keySet() ) {
-			g.addNode(node,nodes.get(node));
+			g.putNode(node,new HashSet<Edge>(nodes.get(node)));
 		}
 		return g;
 	}
 	
+	/**
+	 * Copia del grafo que tambien conserva las etiquetas y el proveedor de etiquetas,
+	 * para entregar los arboles del cache sin compartirlos
+	 */
+	private Graph copiaConEtiquetas() {
+		Graph g=clone();
+		g.labels.putAll(labels);
+		g.labelProvider=labelProvider;
+		return g;
+	}
+	
 	
 	/**
-	 * Funcin para obtener todas las aristas del grafo. 
+	 * Función para obtener todas las aristas del grafo. 
 	 * Por defecto, las retorna de manera ascendente con respecto a su peso.
 	 * @return ArrayList de aristas
 	 */
@@ -59,44 +82,45 @@ public class Graph {
 	}
 	
 	/**
-	 * Funcin para obtener todas las aristas del grafo. 
+	 * Función para obtener todas las aristas del grafo. 
 	 * @param asc valor para ordenar las aristas ya sea ascendente (true) o
 	 * 			descendente (false)
 	 * @return ArrayList de aristas
 	 */
 	public ArrayList<Edge> getEdges(boolean asc) {
-		Set<Edge> edges_set = new HashSet<Edge>();
+		return getEdges(asc,false,false);
+	}
+	
+	/**
+	 * Función para obtener todas las aristas del grafo ordenadas por peso.
+	 * El ordenamiento es por conteo, o radix cuando el rango de pesos es amplio (ver EdgeSorter).
+	 * @param asc valor para ordenar las aristas ya sea ascendente (true) o
+	 * 			descendente (false)
+	 * @param unicas si es true y el grafo es no dirigido, cada arista se regresa una sola vez (a&lt;=b)
+	 * 			en lugar de una vez por cada dirección
+	 * @param paralelo si es true el ordenamiento se reparte entre varios hilos
+	 * @return ArrayList de aristas
+	 */
+	public ArrayList<Edge> getEdges(boolean asc, boolean unicas, boolean paralelo) {
+		unicas=unicas && !dirigido;
+		ArrayList<Edge> edges= new ArrayList<Edge>();
 		for (Map.Entry<Integer,Set<Edge>> n : nodes.entrySet()) {
 			for (Edge value : n.getValue()) {
-				edges_set.add(value);
+				if(!unicas || value.a<=value.b) {
+					edges.add(value);
+				}
 			}
 	    }
-		ArrayList<Edge> edges= new ArrayList<Edge>();
-		for (Edge e : edges_set) {
-			edges.add(e);
-		}
-		if(asc) {
-			Collections.sort(edges, new Comparator<Edge>() {
-			    @Override
-			    public int compare(Edge o1, Edge o2) {
-			    	return o1.w < o2.w ? -1
-							: o1.w > o2.w ? 1
-							: 0;
-			    }
-			});
-		}else {
-			Collections.sort(edges, new Comparator<Edge>() {
-			    @Override
-			    public int compare(Edge o1, Edge o2) {
-			    	return o1.w > o2.w ? -1
-							: o1.w < o2.w ? 1
-							: 0;
-			    }
-			});
+		int[] w=new int[edges.size()];
+		for(int i=0;i<w.length;i++) {
+			w[i]=edges.get(i).w;
 		}
-		
-		
-		return edges;
+		int[] orden=EdgeSorter.sort(w,asc,paralelo);
+		ArrayList<Edge> res= new ArrayList<Edge>(orden.length);
+		for (int i : orden) {
+			res.add(edges.get(i));
+		}
+		return res;
 	}
 	
 
@@ -106,8 +130,10 @@ public class Graph {
 	 */
 	public long getGraphWeight() {
 		long sum=0;
-		for (Edge e:getEdges()) {
-			sum+=e.w;
+		for (Set<Edge> s : nodes.values()) {
+			for (Edge e : s) {
+				sum+=e.w;
+			}
 		}
 		if(!dirigido) {
 			sum/=2;
@@ -115,6 +141,34 @@ public class Graph {
 		return sum;
 	}
 	
+	/**
+	 * Funcion para obtener las aristas del grafo como un Stream que se evalua de forma perezosa,
+	 * sin crear una lista. En grafos no dirigidos cada arista aparece una sola vez (a&lt;=b).
+	 * El Stream puede dividirse entre hilos con parallel(), por ejemplo
+	 * {@code g.edges().parallel().mapToLong(e -> e.w).sum()}.
+	 * @return Stream de aristas
+	 */
+	public Stream<Edge> edges() {
+		return nodes.values().stream()
+				.flatMap(s -> s.stream())
+				.filter(e -> dirigido || e.a<=e.b);
+	}
+	
+	/**
+	 * Funcion para recorrer las aristas del grafo sin crear objetos nuevos.
+	 * En grafos no dirigidos cada arista se visita una sola vez (a&lt;=b).
+	 * @param accion operacion que recibe (nodo a, nodo b, peso)
+	 */
+	public void forEachEdge(IntIntIntConsumer accion) {
+		for (Set<Edge> s : nodes.values()) {
+			for (Edge e : s) {
+				if(dirigido || e.a<=e.b) {
+					accion.accept(e.a,e.b,e.w);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Funcion para obtener el peso de una arista dada por sus nodos
 	 * @param a nodo a
@@ -135,36 +189,35 @@ public class Graph {
 	}
 	
 	/**
-	 * Funcin para aadir un nodo
+	 * Función para añadir un nodo
 	 * @param id	recibe el identificador del nodo
 	 */
 	public void addNode(int id) {
 		if (!nodes.containsKey(id)) {
-			nodes.put(id,new HashSet<Edge>());
-			labels.put(id, ""+id);
+			ponerNodo(id,new HashSet<Edge>());
 		}
 	}
 	
 	/**
-	 * Funcion para aadir un nodo y establecer una etiqueta personalizada a ese nodo
+	 * Funcion para añadir un nodo y establecer una etiqueta personalizada a ese nodo
 	 * @param id identificador del nodo
 	 * @param label etiqueta del nodo
 	 */
 	public void addNode(int id, String label) {
 		if (!nodes.containsKey(id)) {
-			nodes.put(id,new HashSet<Edge>());
-			labels.put(id, label);
+			ponerNodo(id,new HashSet<Edge>());
+			setLabel(id,label);
 		}
 	}
 	
 	/**
-	 * Funcin para aadir un nodo con un vecindario
-	 * @param id	Identificador del nodo a aadir
-	 * @param neighbors	Conjunto con los dentificadores de sus nodos vecinos
+	 * Función para añadir un nodo con un vecindario
+	 * @param id	Identificador del nodo a añadir
+	 * @param neighbors	Conjunto con los dentificadores de sus nodos vecinos (se copia)
 	 */
 	public void addNode(int id,Set<Edge> neighbors) {
-		nodes.put(id,neighbors);
-		labels.put(id,""+id);
+		ponerNodo(id,new HashSet<Edge>(neighbors));
+		labels.remove(id);
 		if(!dirigido) {
 			for(Edge n:neighbors) {
 				linkNodes(n);
@@ -173,6 +226,85 @@ public class Graph {
 		
 	}
 	
+	/**
+	 * Funcion para agregar un nodo con sus aristas ya calculadas, sin buscar repetidas ni
+	 * agregar las inversas. La usa CSRGraph, que ya tiene las aristas de los dos sentidos.
+	 * @param id identificador del nodo
+	 * @param neighbors aristas id->b del nodo
+	 */
+	void putNode(int id,Set<Edge> neighbors) {
+		ponerNodo(id,neighbors);
+		labels.remove(id);
+	}
+	
+	/**
+	 * Agrega o reemplaza el conjunto de aristas de un nodo y le asigna su indice denso
+	 */
+	private void ponerNodo(int id,Set<Edge> neighbors) {
+		nodes.put(id,neighbors);
+		if(ids!=null) {
+			ids.intern(id);
+		}
+		version++;
+	}
+	
+	/**
+	 * Funcion para obtener la tabla de indices densos de los nodos. Se crea la primera vez
+	 * y despues se actualiza cada vez que se agrega un nodo, asi los recorridos no tienen
+	 * que construirla en cada llamada. Como no se eliminan nodos, los indices no cambian.
+	 * @return Instancia tipo IdMap (no debe modificarse)
+	 */
+	@Override
+	public synchronized IdMap getIdMap() {
+		if(ids==null) {
+			ids=new IdMap(nodes.size());
+			for (int id : nodes.keySet()) {
+				ids.intern(id);
+			}
+		}
+		return ids;
+	}
+	
+	
+	/**
+	 * Funcion para obtener la etiqueta de un nodo. Si no se le asigno una etiqueta se usa
+	 * la del proveedor de etiquetas y, si tampoco hay, el identificador del nodo.
+	 * @param id identificador del nodo
+	 * @return etiqueta del nodo
+	 */
+	public String getLabel(int id) {
+		String label=labels.get(id);
+		if(label==null && labelProvider!=null) {
+			label=labelProvider.apply(id);
+		}
+		return label==null ? Integer.toString(id) : label;
+	}
+	
+	/**
+	 * Funcion para asignar la etiqueta de un nodo. Solo se guardan las etiquetas
+	 * distintas del identificador.
+	 * @param id identificador del nodo
+	 * @param label etiqueta, o null para volver a la etiqueta por defecto
+	 */
+	public void setLabel(int id,String label) {
+		if(label==null || label.equals(Integer.toString(id))) {
+			labels.remove(id);
+		}else {
+			labels.put(id,label);
+		}
+		version++;
+	}
+	
+	/**
+	 * Funcion para asignar un proveedor de etiquetas, que calcula la etiqueta de los nodos
+	 * sin etiqueta propia cuando se piden (por ejemplo al exportar el grafo), en lugar de
+	 * guardar un String por nodo.
+	 * @param labelProvider funcion que recibe el identificador y regresa la etiqueta, o null para usar el identificador
+	 */
+	public void setLabelProvider(IntFunction<String> labelProvider) {
+		this.labelProvider=labelProvider;
+		version++;
+	}
 	
 	/**
 	 * Funcion para eliminar una arista del grafo
@@ -183,23 +315,71 @@ public class Graph {
 		if (!dirigido) {
 			nodes.get(e.b).remove(e.inverse());
 		}
+		version++;
+	}
+	
+	/**
+	 * Funcion para obtener la version del grafo. La version aumenta cada vez que
+	 * se agrega un nodo, se enlazan dos nodos, se elimina una arista o cambian las etiquetas.
+	 * Como getNeighbors regresa conjuntos de solo lectura, no hay otra forma de modificar el grafo.
+	 * @return contador de modificaciones del grafo
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Funcion para reemplazar el cache de arboles de getDijkstra y getBFS
+	 * @param cache nuevo cache, o null para desactivarlo
+	 */
+	public synchronized void setPathCache(PathCache cache) {
+		this.cache=cache;
+		sinCache= cache==null;
+	}
+	
+	/**
+	 * Funcion para obtener el cache de arboles de getDijkstra y getBFS
+	 * @return cache del grafo, o null si esta desactivado
+	 */
+	public synchronized PathCache getPathCache() {
+		if(cache==null && !sinCache) {
+			cache=new PathCache(16,1000000);
+		}
+		return cache;
 	}
 	
 	/**
 	 * Funcion para obtener el numero de nodos del grafo
-	 * @return nmero de nodos del grafo
+	 * @return número de nodos del grafo
 	 */
 	public int getSize() {
 		return nodes.size();
 	}
 	
 	/**
-	 * Funcin para obtener los nodos vecinos de un determinado nodo
+	 * Funcion para saber si el grafo es dirigido
+	 * @return true si el grafo es dirigido
+	 */
+	public boolean isDirigido() {
+		return dirigido;
+	}
+	
+	/**
+	 * Funcion para obtener los identificadores de todos los nodos del grafo
+	 * @return conjunto (solo lectura) con los identificadores de los nodos
+	 */
+	public Set<Integer> getNodes() {
+		return Collections.unmodifiableSet(nodes.keySet());
+	}
+	
+	/**
+	 * Función para obtener los nodos vecinos de un determinado nodo
 	 * @param id	Identificador del nodo del cual se desean conocer sus vecinos
-	 * @return
+	 * @return conjunto (solo lectura) con las aristas que salen del nodo, o null si no existe
 	 */
 	public Set<Edge> getNeighbors(int id) {
-		return nodes.get(id);
+		Set<Edge> s=nodes.get(id);
+		return s==null ? null : Collections.unmodifiableSet(s);
 	}
 	
 	/**
@@ -217,10 +397,10 @@ public class Graph {
 	
 	
 	/**
-	 * Funcin para comprobar si existe la conexin de a->b
+	 * Función para comprobar si existe la conexión de a->b
 	 * @param a Nodo a
 	 * @param b Nodo b
-	 * @return retorna true si existe la conexin
+	 * @return retorna true si existe la conexión
 	 */
 	public boolean isLinked(int a,int b) {
 		for (Edge e : nodes.get(a)) {
@@ -233,7 +413,7 @@ public class Graph {
 	
 	
 	/**
-	 * Funcin para enlazar dos nodos
+	 * Función para enlazar dos nodos
 	 * @param a	identificador del primer nodo
 	 * @param b	identificador del segundo nodo
 	 * @return	retorna true si los nodos no estaban unidos previamente, en caso de que ya estuvieran unidos retorna falso
@@ -243,7 +423,7 @@ public class Graph {
 	}
 
 	/**
-	 * Funcin para enlazar dos nodos
+	 * Función para enlazar dos nodos
 	 * @param a	identificador del primer nodo
 	 * @param b	identificador del segundo nodo
 	 * @param w valor del peso del enlace
@@ -256,7 +436,7 @@ public class Graph {
 	
 	
 	/**
-	 * Funcin para enlazar dos nodos
+	 * Función para enlazar dos nodos
 	 * @param e	arista del enlace, esta contiene la informacion de los nodos a unir y el peso del enlace
 	 * @return	retorna true si los nodos no estaban unidos previamente, en caso de que ya estuvieran unidos retorna falso
 	 */
@@ -272,6 +452,7 @@ public class Graph {
 				return false;
 			}else {
 				nodes.get(e.a).add(e);
+				version++;
 				return true;
 			}
 		}else {
@@ -281,6 +462,7 @@ public class Graph {
 				Edge f=new Edge(e.b,e.a,e.w);
 				nodes.get(e.a).add(e);
 				nodes.get(e.b).add(f);
+				version++;
 				return true;
 			}
 			
@@ -290,14 +472,12 @@ public class Graph {
 	
 
 	/**
-	 * Funcin para guardar el nodo en un archivo
-	 * @param filename	Nombre del archivo en el que se guardar (incluye la extensin)
+	 * Función para guardar el nodo en un archivo
+	 * @param filename	Nombre del archivo en el que se guardará (incluye la extensión)
 	 */
 	public void saveFile(String filename) {
 		try {
-		      FileWriter myWriter = new FileWriter(filename);
-		      myWriter.write(this.toGrahpViz());
-		      myWriter.close();
+		      this.writeFile(filename);
 		      System.out.println("Grafo guardado correctamente como "+filename);
 		    } catch (IOException e) {
 		      System.out.println("Ha ocurrido un error al guardar el grafo: "+filename);
@@ -305,6 +485,22 @@ public class Graph {
 		    }
 	}
 	
+	/**
+	 * Función para guardar el grafo en un archivo, reportando los errores al llamador
+	 * @param filename	Nombre del archivo en el que se guardará (incluye la extensión)
+	 * @throws IOException si no se pudo escribir el archivo
+	 */
+	public void writeFile(String filename) throws IOException {
+		GraphFileEvent evento=GraphFileEvent.start("escritura",filename);
+		boolean exito=false;
+		try (Writer myWriter = new BufferedWriter(new FileWriter(filename))) {
+			this.writeGraphViz(myWriter);
+			exito=true;
+		} finally {
+			evento.finish(this,exito);
+		}
+	}
+	
 	/**
 	 * Carga un grafo a partir de un archivo .gv.
 	 * Nota: solo se ha probado con los mismos archivos que genera esta biblioteca.
@@ -324,392 +520,789 @@ public class Graph {
 	 */
 	public static Graph loadFile(String filename) {
 		Graph g=null;
-		boolean dirigido=false;
 		try{	
-			File file=new File(filename);
-			FileReader fr=new FileReader(file);  
-			BufferedReader br=new BufferedReader(fr);
+			g=readFile(filename);
+		}  
+		catch(IOException e){  
+			e.printStackTrace();  
+		}
+		return g;
+		
+	}
+	
+	/**
+	 * Funcion para cargar un grafo desde un archivo, reportando los errores al llamador.
+	 * Los nombres de los nodos se traducen con un IdMap: los numericos son el identificador
+	 * del nodo y los demas reciben, al terminar la lectura, identificadores mayores a todos los
+	 * numericos del archivo, con el nombre como etiqueta.
+	 * @param filename Nombre del archivo
+	 * @return instancia tipo Graph
+	 * @throws IOException si no se pudo leer el archivo
+	 */
+	public static Graph readFile(String filename) throws IOException {
+		Graph g=null;
+		boolean dirigido=false;
+		File file=new File(filename);
+		GraphFileEvent evento=GraphFileEvent.start("lectura",filename);
+		boolean exito=false;
+		try (BufferedReader br=new BufferedReader(new FileReader(file))) {
 			String line;
 			String[] n,e;
 			line=br.readLine();
+			if(line==null) {
+				throw new IOException("El archivo esta vacio: "+filename);
+			}
 			if (line.contains("digraph")) {
 				dirigido=true;
 			}else{
 				dirigido=false;
 			}
-			g=new Graph(dirigido);
+			String flecha= dirigido ? "->" : "--";
+			//los nodos se guardan por indice en nombres y se crean al final, cuando ya se conocen
+			//todos los identificadores numericos del archivo
+			IdMap nombres=new IdMap();
+			HashMap<Integer,String> etiquetas=new HashMap<>();
+			int[] aristas=new int[48]; //origen, destino y peso de cada arista
+			int m=0;
 			while((line=br.readLine())!=null){
 				line=line.trim();
 				if(line.contains(";")) {
 					line=line.replace(";", "").trim();
-					if(line.contains("-")) {
-						if(dirigido) {
-							n=line.split("->");
-							e=n[1].trim().split(" ");
-							e[1]=e[1].replace("[label=\"", "");
-							e[1]=e[1].replace("\"]", "");
-							//Graph.debug("n1="+n[1] + "e0= "+e[0]+" e1="+e[1]);
-							g.linkNodes(Integer.parseInt(n[0].trim()), Integer.parseInt(e[0].trim()),Integer.parseInt(e[1].trim()));
-						}else {
-							n=line.split("--");
-							e=n[1].trim().split(" ");
-							e[1]=e[1].replace("[label=\"", "");
-							e[1]=e[1].replace("\"]", "");
-							g.linkNodes(Integer.parseInt(n[0].trim()), Integer.parseInt(e[0].trim()),Integer.parseInt(e[1].trim()));
+					int corchete=line.indexOf('[');
+					if((corchete<0 ? line : line.substring(0,corchete)).contains(flecha)) {
+						n=line.split(flecha,2);
+						e=n[1].trim().split(" ");
+						e[1]=e[1].replace("[label=\"", "");
+						e[1]=e[1].replace("\"]", "");
+						//Graph.debug("n1="+n[1] + "e0= "+e[0]+" e1="+e[1]);
+						if(m+3>aristas.length) {
+							aristas=Arrays.copyOf(aristas,aristas.length*2);
 						}
+						aristas[m++]=nombres.intern(n[0].trim());
+						aristas[m++]=nombres.intern(e[0].trim());
+						aristas[m++]=Integer.parseInt(e[1].trim());
 					}else {
 						e=line.split(" ");
 						e[1]=e[1].replace("[label=\"", "");
 						e[1]=e[1].replace("\"]", "");
-						g.addNode(Integer.parseInt(e[0]),e[1]);
+						etiquetas.put(nombres.intern(e[0]),e[1]);
 					}
 				}
 				
-			}  
-			fr.close();
-		}  
-		catch(IOException e){  
-			e.printStackTrace();  
+			}
+			int[] ids=idsArchivo(nombres,filename);
+			g=new Graph(dirigido);
+			for(int i=0;i<ids.length;i++) {
+				g.addNode(ids[i]);
+				String etiqueta=etiquetas.get(i);
+				g.setLabel(ids[i],etiqueta!=null ? etiqueta : nombres.getName(i));
+			}
+			for(int i=0;i<m;i+=3) {
+				g.linkNodes(ids[aristas[i]],ids[aristas[i+1]],aristas[i+2]);
+			}
+			exito=true;
+		} finally {
+			evento.finish(g,exito);
 		}
 		return g;
-		
+	}
+	
+	/**
+	 * Traduce los nombres de los nodos del archivo a identificadores. Los nombres numericos son el
+	 * identificador; los demas reciben identificadores consecutivos despues del mayor numerico, asi
+	 * que no chocan con ningun nodo del archivo.
+	 * @throws IOException si un identificador no cabe en un int
+	 */
+	private static int[] idsArchivo(IdMap nombres,String filename) throws IOException {
+		int[] ids=new int[nombres.size()];
+		long siguiente=0;
+		for(int i=0;i<ids.length;i++) {
+			long id=nombres.getId(i);
+			if(id!=Long.MIN_VALUE) {
+				if(id<Integer.MIN_VALUE || id>Integer.MAX_VALUE) {
+					throw new IOException("Identificador fuera de rango en "+filename+": "+id);
+				}
+				siguiente=Math.max(siguiente,id+1);
+			}
+		}
+		for(int i=0;i<ids.length;i++) {
+			long id=nombres.getId(i);
+			if(id==Long.MIN_VALUE) {
+				if(siguiente>Integer.MAX_VALUE) {
+					throw new IOException("No hay identificadores libres para los nodos con nombre en "+filename);
+				}
+				id=siguiente++;
+			}
+			ids[i]=(int)id;
+		}
+		return ids;
 	}
 	
 	
 	/**
-	 * Funcin para generar un grafo usando el modelo Erdos Renyi
-	 * @param n	Nmero de nodos del grafo
+	 * Función para generar un grafo usando el modelo Erdos Renyi.
+	 * Sortea pares al azar y descarta los repetidos usando el mismo grafo, asi que con la misma
+	 * semilla produce los mismos pares que siempre; la version con EdgeSink usa otro muestreo.
+	 * @param n	Número de nodos del grafo
 	 * @param m	Nmero de aristas del grafo
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genErdosRenyi(int n,int m,boolean dirigido,Random r) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genErdosRenyi");
 		if (r==null) r=new Random();
 		Graph g=new Graph(dirigido);
 		for(int i=0;i<n;i++) { //for para crear los n nodos
 			g.addNode(i);
 		}
+		long pares= dirigido ? (long)n*(n-1) : (long)n*(n-1)/2;
+		if(m>pares) {
+			System.err.println("Solo hay "+pares+" aristas posibles con "+n+" nodos, se genera el grafo completo");
+			m=(int)pares;
+		}
 		int i=0; //variable que lleva el conteo de las aristas
 		int j=0; //variable auxiliar para seleccionar un nodo al azar
 		int k=0; //variable auxiliar para seleccionar un nodo al azar
+		long rechazos=0; //sorteos descartados por repetir nodo o arista
 		while(i<m) { //bucle para obtener las m aristas
 			j=r.nextInt(n);
 			k=r.nextInt(n);
 			while(j==k) { //verifica que sean nodos diferentes j y k
 				k=r.nextInt(n);
+				rechazos++;
 			}
 			if(g.linkNodes(j,k)) {//comprueba si los nodos ya estaban unidos
 				i++; //en caso de que sea nueva la union agrega 1 al conteo de aristas
+			}else {
+				rechazos++;
 			}
-			
 		}
+		genFinish("genErdosRenyi",inicio,evento,n,dirigido,m,rechazos);
 		return g;
 	}
-	
+
 	/**
-	 * Funcin para generar un grafo usando el modelo Gilbert
-	 * @param n	Nmero de nodos del grafo
+	 * Función para generar un grafo usando el modelo Erdos Renyi, enviando los nodos
+	 * y aristas a un EdgeSink en lugar de construir el grafo en memoria.
+	 * Los m pares se eligen con SortedSampler entre los n(n-1) pares ordenados (o n(n-1)/2 si
+	 * no es dirigido) y salen en orden, asi que no hace falta recordar los pares ya unidos:
+	 * la memoria es constante y el tiempo esperado es O(n+m). Si m supera el numero de pares
+	 * posibles se genera el grafo completo. Con la misma semilla elige otros pares que la
+	 * version que regresa un Graph.
+	 * @param n	Número de nodos del grafo
+	 * @param m	Nmero de aristas del grafo
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genErdosRenyi(int n,int m,boolean dirigido,Random r,EdgeSink sink) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genErdosRenyi");
+		if (r==null) r=new Random();
+		sink.start(dirigido);
+		for(int i=0;i<n;i++) { //for para crear los n nodos
+			sink.addNode(i);
+		}
+		long pares= dirigido ? (long)n*(n-1) : (long)n*(n-1)/2;
+		if(m>pares) {
+			System.err.println("Solo hay "+pares+" aristas posibles con "+n+" nodos, se genera el grafo completo");
+		}
+		SortedSampler muestra=new SortedSampler(pares,m,r);
+		long aristas=muestra.remaining();
+		int j=0; //renglon del par actual (nodo origen)
+		long inicioRenglon=0; //indice del primer par del renglon j (no dirigido)
+		long par;
+		while((par=muestra.next())>=0) {
+			int k;
+			if(dirigido) { //renglon j: pares j->k con k!=j
+				j=(int)(par/(n-1));
+				k=(int)(par%(n-1));
+				if(k>=j) {
+					k++;
+				}
+			}else { //renglon j: pares j-k con k>j; los indices crecen, asi que el renglon solo avanza
+				while(par>=inicioRenglon+(n-1-j)) {
+					inicioRenglon+=n-1-j;
+					j++;
+				}
+				k=j+1+(int)(par-inicioRenglon);
+			}
+			sink.addEdge(j,k,Edge.randomW());
+		}
+		sink.finish();
+		genFinish("genErdosRenyi",inicio,evento,n,dirigido,aristas,0);
+	}
+
+	/**
+	 * Función para generar un grafo usando el modelo Gilbert
+	 * @param n	Número de nodos del grafo
 	 * @param p	Probabilidad de union entre nodos
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genGilbert(int n,double p,boolean dirigido,Random r) {
+		GraphSink s=new GraphSink();
+		genGilbert(n,p,dirigido,r,s);
+		return s.getGraph();
+	}
+
+	/**
+	 * Función para generar un grafo usando el modelo Gilbert, enviando los nodos
+	 * y aristas a un EdgeSink. Solo usa memoria constante.
+	 * En grafos no dirigidos cada par se sortea una sola vez con probabilidad 1-(1-p)^2,
+	 * que es la misma probabilidad que resulta de sortear ambos sentidos con p.
+	 * @param n	Número de nodos del grafo
+	 * @param p	Probabilidad de union entre nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genGilbert(int n,double p,boolean dirigido,Random r,EdgeSink sink) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genGilbert");
 		if (r==null) r=new Random();
-		Graph g=new Graph(dirigido);
+		sink.start(dirigido);
 		for(int i=0;i<n;i++) {
-			g.addNode(i);
+			sink.addNode(i);
 		}
-		double k=0;
+		double q=dirigido ? p : 1-(1-p)*(1-p);
+		long aristas=0;
 		for(int i=0;i<n;i++) {
-			for(int j=0;j<n;j++) {
+			for(int j=dirigido ? 0 : i+1;j<n;j++) {
 				if(i!=j) {
-					k=r.nextDouble();
-					if(k<p) {
-						g.linkNodes(i,j);
+					if(r.nextDouble()<q) {
+						sink.addEdge(i,j,Edge.randomW());
+						aristas++;
 					}
 				}
 			}
 		}
-		return g;
+		sink.finish();
+		genFinish("genGilbert",inicio,evento,n,dirigido,aristas,(dirigido ? (long)n*(n-1) : (long)n*(n-1)/2)-aristas);
 	}
-	
+
 	/**
-	 * Funcin para generar un grafo usando el modelo geogrfico simple
-	 * @param n	Numero de nodos del grfo
-	 * @param d	distancia mnima para union de nodos
+	 * Función para generar un grafo usando el modelo geográfico simple
+	 * @param n	Numero de nodos del gráfo
+	 * @param d	distancia mínima para union de nodos
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genGeografico(int n,double d,boolean dirigido,Random r) {
+		GraphSink s=new GraphSink();
+		genGeografico(n,d,dirigido,r,s);
+		return s.getGraph();
+	}
+
+	/**
+	 * Función para generar un grafo usando el modelo geográfico simple, enviando los nodos
+	 * y aristas a un EdgeSink. Solo guarda en memoria las coordenadas de los nodos.
+	 * @param n	Numero de nodos del gráfo
+	 * @param d	distancia mínima para union de nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genGeografico(int n,double d,boolean dirigido,Random r,EdgeSink sink) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genGeografico");
 		if (r==null) r=new Random();
-		Graph g=new Graph(dirigido);
+		sink.start(dirigido);
 		Point2D[] p= new Point2D[n];
 		for(int i=0;i<n;i++) {
-			g.addNode(i);
+			sink.addNode(i);
 			p[i]= new Point2D.Double(r.nextDouble(),r.nextDouble());
 		}
+		long aristas=0;
 		for(int i=0;i<n;i++) {
-			for(int j=0;j<n;j++) {
+			for(int j=dirigido ? 0 : i+1;j<n;j++) { //la distancia es simétrica, en no dirigidos basta un sentido
 				if(i!=j) {
 					if(p[i].distance(p[j])<d) {
-						g.linkNodes(i,j);
+						sink.addEdge(i,j,Edge.randomW());
+						aristas++;
 					}
 				}
 			}
 		}
-		return g;
+		sink.finish();
+		genFinish("genGeografico",inicio,evento,n,dirigido,aristas,(dirigido ? (long)n*(n-1) : (long)n*(n-1)/2)-aristas);
 	}
-	
-	
+
+
 	/**
-	 * Funcin para generar un grafo usando el modelo Barabasi.
-	 * Nota: En mis intentos por generar la variante, realic este sin querer
-	 * por lo que decid mantenerlo en el cdigo.
+	 * Función para generar un grafo usando el modelo Barabasi.
+	 * Nota: En mis intentos por generar la variante, realicé este sin querer
+	 * por lo que decidí mantenerlo en el código.
 	 * @param n	Numero de nodos
-	 * @param d	Grado mximo de los nodos
+	 * @param d	Grado máximo de los nodos
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genBarabasiAlbert(int n,double d,boolean dirigido,Random r) {
+		GraphSink s=new GraphSink();
+		genBarabasiAlbert(n,d,dirigido,r,s);
+		return s.getGraph();
+	}
+
+	/**
+	 * Función para generar un grafo usando el modelo Barabasi, enviando los nodos
+	 * y aristas a un EdgeSink. Solo guarda en memoria el grado de cada nodo.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genBarabasiAlbert(int n,double d,boolean dirigido,Random r,EdgeSink sink) {
+		genBarabasiAlbert(n,d,dirigido,r,sink,null,null);
+	}
+
+	/**
+	 * Función igual a la anterior que puede cancelarse y reportar su avance. El token se revisa
+	 * cada 64 nodos y en cada vuelta de BarabasiVariantEnforceLink; si se cancela, se llama a
+	 * sink.cancel y se lanza CancelledException.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance (fraccion de nodos agregados), puede ser null
+	 */
+	public static void genBarabasiAlbert(int n,double d,boolean dirigido,Random r,EdgeSink sink,CancellationToken token,ProgressListener listener) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genBarabasiAlbert");
 		if (r==null) r=new Random();
-		Graph g=new Graph(dirigido);
+		TaskControl control=new TaskControl(token,listener,n,6,() -> sink.cancel());
+		sink.start(dirigido);
+		int[] grado=new int[n];
 		List<Integer> intList = new ArrayList<Integer>();
-		
+
 		int i,j,k,l;
+		long rechazos=0; //sorteos en los que no se unieron los nodos
 		for(i=0;i<n;i++) {
-			g.addNode(i);
-			
+			sink.addNode(i);
+
 		}
 		intList.add(0);
 		for(i=1;i<d;i++) {
 			intList.add(i);
-			g.linkNodes(i,i-1);
+			BarabasiLink(i,i-1,grado,dirigido,sink);
 		}
-		
+
 		for(;i<n;i++) {
+			control.step();
 			for(j=0;j<intList.size();j++) {
 				l=intList.get(j);
-				k=g.nodes.get(l).size();
+				k=grado[l];
 				if(r.nextDouble()<k/d) {
-					if(g.linkNodes(i,l)) {
-						if( k==d-1) {
-							intList.remove(j);
-							j--;
-						}
-						break;
+					BarabasiLink(i,l,grado,dirigido,sink);
+					if( k==d-1) {
+						intList.remove(j);
+						j--;
 					}
+					break;
+				}else {
+					rechazos++;
 				}
-				
+
 			}
 			intList.add(i);
-			if(g.nodes.get(i).size()==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
-				BarabasiVariantEnforceLink(intList,d,g,r);
+			if(grado[i]==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
+				rechazos+=BarabasiVariantEnforceLink(intList,d,grado,dirigido,sink,r,control);
 			}
-			
+
 		}
-		return g;
+		control.done();
+		sink.finish();
+		genFinish("genBarabasiAlbert",inicio,evento,n,dirigido,aristasBarabasi(grado,dirigido),rechazos);
 	}
-	
+
 	/**
-	 * Funcin para generar un grafo usando el modelo Barabasi.
-	 * Nota: a diferencia de la funcin anterior, se seleccionan los nodos de manera aleatoria
+	 * Función para generar un grafo usando el modelo Barabasi.
+	 * Nota: a diferencia de la función anterior, se seleccionan los nodos de manera aleatoria
 	 * @param n	Numero de nodos
-	 * @param d	Grado mximo de los nodos
+	 * @param d	Grado máximo de los nodos
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genBarabasiAlbertRandom(int n,double d,boolean dirigido,Random r) {
+		GraphSink s=new GraphSink();
+		genBarabasiAlbertRandom(n,d,dirigido,r,s);
+		return s.getGraph();
+	}
+
+	/**
+	 * Función para generar un grafo usando el modelo Barabasi seleccionando los nodos de manera
+	 * aleatoria, enviando los nodos y aristas a un EdgeSink. Solo guarda en memoria el grado de cada nodo.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genBarabasiAlbertRandom(int n,double d,boolean dirigido,Random r,EdgeSink sink) {
+		genBarabasiAlbertRandom(n,d,dirigido,r,sink,null,null);
+	}
+
+	/**
+	 * Función igual a la anterior que puede cancelarse y reportar su avance. El token se revisa
+	 * cada 64 nodos y en cada vuelta de BarabasiVariantEnforceLink; si se cancela, se llama a
+	 * sink.cancel y se lanza CancelledException.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance (fraccion de nodos agregados), puede ser null
+	 */
+	public static void genBarabasiAlbertRandom(int n,double d,boolean dirigido,Random r,EdgeSink sink,CancellationToken token,ProgressListener listener) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genBarabasiAlbertRandom");
 		if (r==null) r=new Random();
-		Graph g=new Graph(dirigido);
+		TaskControl control=new TaskControl(token,listener,n,6,() -> sink.cancel());
+		sink.start(dirigido);
+		int[] grado=new int[n];
 		List<Integer> intList = new ArrayList<Integer>();
-		
+
 		int i,j,k,l;
+		long rechazos=0; //sorteos en los que no se unieron los nodos
 		for(i=0;i<n;i++) {
-			g.addNode(i);
-			
+			sink.addNode(i);
+
 		}
 		intList.add(0);
 		for(i=1;i<d;i++) {
 			intList.add(i);
 			j=i-1;
-			g.linkNodes(i,j);
+			BarabasiLink(i,j,grado,dirigido,sink);
 		}
-		
+
 		for(;i<n;i++) {
+			control.step();
 			Collections.shuffle(intList);
 			for(j=0;j<intList.size();j++) {
 				l=intList.get(j);
-				k=g.nodes.get(l).size();
+				k=grado[l];
 				if(r.nextDouble()<k/d) {
-					if(g.linkNodes(i,l)) {
-						if( k==d-1) {
-							intList.remove(j);
-							j--;
-						}
-						break;
+					BarabasiLink(i,l,grado,dirigido,sink);
+					if( k==d-1) {
+						intList.remove(j);
+						j--;
 					}
+					break;
+				}else {
+					rechazos++;
 				}
-				
+
 			}
 			intList.add(i);
-			if(g.nodes.get(i).size()==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
-				BarabasiVariantEnforceLink(intList,d,g,r);
+			if(grado[i]==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
+				rechazos+=BarabasiVariantEnforceLink(intList,d,grado,dirigido,sink,r,control);
 			}
-			
+
 		}
-		return g;
+		control.done();
+		sink.finish();
+		genFinish("genBarabasiAlbertRandom",inicio,evento,n,dirigido,aristasBarabasi(grado,dirigido),rechazos);
 	}
-	
+
 	/**
-	 * Funcin para generar un grafo usando la variante del modelo Barabasi
+	 * Función para generar un grafo usando la variante del modelo Barabasi
 	 * @param n	Numero de nodos
-	 * @param d	Grado mximo de los nodos
+	 * @param d	Grado máximo de los nodos
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genBarabasiAlbertVariant(int n,double d,boolean dirigido,Random r) {
+		GraphSink s=new GraphSink();
+		genBarabasiAlbertVariant(n,d,dirigido,r,s);
+		return s.getGraph();
+	}
+
+	/**
+	 * Función para generar un grafo usando la variante del modelo Barabasi, enviando los nodos
+	 * y aristas a un EdgeSink. Solo guarda en memoria el grado de cada nodo.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genBarabasiAlbertVariant(int n,double d,boolean dirigido,Random r,EdgeSink sink) {
+		genBarabasiAlbertVariant(n,d,dirigido,r,sink,null,null);
+	}
+
+	/**
+	 * Función igual a la anterior que puede cancelarse y reportar su avance. El token se revisa
+	 * cada 64 nodos y en cada vuelta de BarabasiVariantEnforceLink; si se cancela, se llama a
+	 * sink.cancel y se lanza CancelledException.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance (fraccion de nodos agregados), puede ser null
+	 */
+	public static void genBarabasiAlbertVariant(int n,double d,boolean dirigido,Random r,EdgeSink sink,CancellationToken token,ProgressListener listener) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genBarabasiAlbertVariant");
 		if (r==null) r=new Random();
-		Graph g=new Graph(dirigido);
+		TaskControl control=new TaskControl(token,listener,n,6,() -> sink.cancel());
+		sink.start(dirigido);
+		int[] grado=new int[n];
 		List<Integer> intList = new ArrayList<Integer>();
 		int i,j,k,l;
+		long rechazos=0; //sorteos en los que no se unieron los nodos
 		for(i=0;i<n;i++) {
-			g.addNode(i);
+			sink.addNode(i);
 		}
 		intList.add(0);
 		for(i=1;i<d;i++) {
 			intList.add(i);
 			j=i-1;
-			g.linkNodes(i,j);
-			
+			BarabasiLink(i,j,grado,dirigido,sink);
+
 		}
-		
+
 		for(;i<n;i++) {
+			control.step();
 			for(j=0;j<intList.size();j++) {
 				l=intList.get(j);
-				k=g.nodes.get(l).size();
+				k=grado[l];
 				if( k<d) {
 					if(r.nextDouble()<k/d) {
-						if(g.linkNodes(i,l)) {
-							if(g.nodes.get(l).size()==d) {
-								intList.remove(j);
-								j--;
-							}
-							if(g.nodes.get(i).size()==(d-1)) { //Con esta condicion se asegura que el siguiente nodo tendr un espacio libre con quien conectarse
-								break;
-							}
+						BarabasiLink(i,l,grado,dirigido,sink);
+						if(grado[l]==d) {
+							intList.remove(j);
+							j--;
 						}
+						if(grado[i]==(d-1)) { //Con esta condicion se asegura que el siguiente nodo tendrá un espacio libre con quien conectarse
+							break;
+						}
+					}else {
+						rechazos++;
 					}
 				}
 			}
 			intList.add(i);
-			if(g.nodes.get(i).size()==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
-				BarabasiVariantEnforceLink(intList,d,g,r);
+			if(grado[i]==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
+				rechazos+=BarabasiVariantEnforceLink(intList,d,grado,dirigido,sink,r,control);
 			}
-			
+
 		}
-		return g;
+		control.done();
+		sink.finish();
+		genFinish("genBarabasiAlbertVariant",inicio,evento,n,dirigido,aristasBarabasi(grado,dirigido),rechazos);
 	}
-	
-	
+
+
 	/**
-	 * Funcin para generar un grafo usando la variante del modelo Barabasi, escogiendo los nodos de manera aleatoria
+	 * Función para generar un grafo usando la variante del modelo Barabasi, escogiendo los nodos de manera aleatoria
 	 * @param n	Numero de nodos
-	 * @param d	Grado mximo de los nodos
+	 * @param d	Grado máximo de los nodos
 	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
 	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
 	 * @return	Grafo
 	 */
 	public static Graph genBarabasiAlbertVariantRandom(int n,double d,boolean dirigido, Random r) {
+		GraphSink s=new GraphSink();
+		genBarabasiAlbertVariantRandom(n,d,dirigido,r,s);
+		return s.getGraph();
+	}
+
+	/**
+	 * Función para generar un grafo usando la variante del modelo Barabasi, escogiendo los nodos de manera aleatoria
+	 * y enviando los nodos y aristas a un EdgeSink. Solo guarda en memoria el grado de cada nodo.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 */
+	public static void genBarabasiAlbertVariantRandom(int n,double d,boolean dirigido, Random r,EdgeSink sink) {
+		genBarabasiAlbertVariantRandom(n,d,dirigido,r,sink,null,null);
+	}
+
+	/**
+	 * Función igual a la anterior que puede cancelarse y reportar su avance. El token se revisa
+	 * cada 64 nodos y en cada vuelta de BarabasiVariantEnforceLink; si se cancela, se llama a
+	 * sink.cancel y se lanza CancelledException.
+	 * @param n	Numero de nodos
+	 * @param d	Grado máximo de los nodos
+	 * @param dirigido	si es true crea un grafo dirigido, de lo contrario es no dirigido
+	 * @param r	Objeto random, en caso de que se desee especificar con una semilla.
+	 * @param sink destino de los nodos y aristas
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance (fraccion de nodos agregados), puede ser null
+	 */
+	public static void genBarabasiAlbertVariantRandom(int n,double d,boolean dirigido, Random r,EdgeSink sink,CancellationToken token,ProgressListener listener) {
+		long inicio=Metrics.start();
+		GraphGeneratorEvent evento=GraphGeneratorEvent.start("genBarabasiAlbertVariantRandom");
 		if (r==null) r=new Random();
-		Graph g=new Graph(dirigido);
+		TaskControl control=new TaskControl(token,listener,n,6,() -> sink.cancel());
+		sink.start(dirigido);
+		int[] grado=new int[n];
 		List<Integer> intList = new ArrayList<Integer>();
 		int i,j,k,l;
+		long rechazos=0; //sorteos en los que no se unieron los nodos
 		for(i=0;i<n;i++) {
-			g.addNode(i);
+			sink.addNode(i);
 		}
 		intList.add(0);
 		for(i=1;i<d;i++) {
 			intList.add(i);
 			for(j=0;j<i;j++) {
-				g.linkNodes(i,j);
+				BarabasiLink(i,j,grado,dirigido,sink);
 			}
 		}
-		
+
 		for(;i<n;i++) {
+			control.step();
 			Collections.shuffle(intList);
 			for(j=0;j<intList.size();j++) {
 				l=intList.get(j);
-				k=g.nodes.get(l).size();
+				k=grado[l];
 				if(r.nextDouble()<k/d) {
-					if(g.linkNodes(i,l)) {
-						if(k==(d-1)) {
-							intList.remove(j);
-							j--;
-						}
-						if(g.nodes.get(i).size()==(d-1)) { //Con esta condicion se asegura que el siguiente nodo tendr un espacio libre con quien conectarse
-							break;
-						}
+					BarabasiLink(i,l,grado,dirigido,sink);
+					if(k==(d-1)) {
+						intList.remove(j);
+						j--;
+					}
+					if(grado[i]==(d-1)) { //Con esta condicion se asegura que el siguiente nodo tendrá un espacio libre con quien conectarse
+						break;
 					}
+				}else {
+					rechazos++;
 				}
 			}
 			intList.add(i);
-			if(g.nodes.get(i).size()==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
-				BarabasiVariantEnforceLink(intList,d,g,r);
+			if(grado[i]==0) { //en caso de que el nodo no se haya conectado, se fuerza a que tenga almenos un enlace
+				rechazos+=BarabasiVariantEnforceLink(intList,d,grado,dirigido,sink,r,control);
 			}
-			
+
 		}
-		return g;
+		control.done();
+		sink.finish();
+		genFinish("genBarabasiAlbertVariantRandom",inicio,evento,n,dirigido,aristasBarabasi(grado,dirigido),rechazos);
 	}
-	
+
+	/**
+	 * Función auxiliar del modelo barabasi para enlazar dos nodos y actualizar sus grados.
+	 * En los modelos barabasi el nodo nuevo nunca estaba unido con el nodo elegido,
+	 * por lo que no es necesario comprobar si ya existía el enlace.
+	 * En grafos dirigidos, igual que en el grafo en memoria, solo cuenta el grado de salida.
+	 */
+	private static void BarabasiLink(int a,int b,int[] grado,boolean dirigido,EdgeSink sink) {
+		sink.addEdge(a,b,Edge.randomW());
+		grado[a]++;
+		if(!dirigido) {
+			grado[b]++;
+		}
+	}
+
 	/**
-	 * Funcin auxiliar del modelo barabasi para forzar un enlace
+	 * Función auxiliar del modelo barabasi para forzar un enlace
 	 * @param intList	Lista con los nodos de grado menor a d
-	 * @param d	Grado mximo de los nodos
-	 * @param g Grafo en el cual se unen los nodos
-	 * @param r	Objeto Random para conservar la semilla usada en la funcin que lo llama
+	 * @param d	Grado máximo de los nodos
+	 * @param grado grado de cada nodo
+	 * @param dirigido si es true el grafo es dirigido
+	 * @param sink destino de la arista
+	 * @param r	Objeto Random para conservar la semilla usada en la función que lo llama
+	 * @param control token y avance de la función que lo llama
+	 * @return numero de sorteos en los que no se unieron los nodos
 	 */
-	private static void BarabasiVariantEnforceLink(List<Integer> intList,double d,Graph g, Random r) {
+	private static int BarabasiVariantEnforceLink(List<Integer> intList,double d,int[] grado,boolean dirigido,EdgeSink sink, Random r,TaskControl control) {
 		int i,j,k,l;
+		int rechazos=0;
 		i=intList.size()-1;
 		while(true) {
+			control.check(); //si ningun nodo puede recibir enlaces este ciclo no termina
 			for(j=0;j<i;j++) {
 				l=intList.get(j);
-				k=g.nodes.get(l).size();
+				k=grado[l];
 				if(r.nextDouble()<k/d) {
-					if(g.linkNodes(intList.get(i),l)) {
-						if(k==(d-1)) {
-							intList.remove(j);
-						}
-						return;
+					BarabasiLink(intList.get(i),l,grado,dirigido,sink);
+					if(k==(d-1)) {
+						intList.remove(j);
 					}
+					return rechazos;
 				}
-				
+				rechazos++;
+
 			}
 		}
 	}
 	
 	/**
-	 * Funcin que retorna el arbol BFS de la instancia Graph que manda a llamar el mtodo
-	 * @param n ndice del nodo que ser tomado como nodo raiz
+	 * Función auxiliar del modelo barabasi para obtener el numero de aristas a partir de los grados
+	 */
+	private static long aristasBarabasi(int[] grado,boolean dirigido) {
+		long suma=0;
+		for (int g : grado) {
+			suma+=g;
+		}
+		return dirigido ? suma : suma/2;
+	}
+	
+	/**
+	 * Función auxiliar para registrar las metricas y el evento JFR de un generador, si estan activados
+	 * @param modelo nombre del generador
+	 * @param inicio valor de Metrics.start al iniciar el generador
+	 * @param evento evento iniciado al comenzar el generador
+	 * @param n numero de nodos
+	 * @param dirigido si el grafo es dirigido
+	 * @param aristas numero de aristas generadas
+	 * @param rechazos sorteos descartados
+	 */
+	private static void genFinish(String modelo,long inicio,GraphGeneratorEvent evento,int n,boolean dirigido,long aristas,long rechazos) {
+		evento.finish(n,aristas,dirigido,rechazos);
+		if(Metrics.isEnabled()) {
+			Metrics.count(modelo,"nodos",n);
+			Metrics.count(modelo,"aristas",aristas);
+			Metrics.count(modelo,"rechazos",rechazos);
+			Metrics.time(modelo,inicio);
+		}
+	}
+	
+	/**
+	 * Función que retorna el arbol BFS de la instancia Graph que manda a llamar el método.
+	 * Mientras el grafo no se modifique, el arbol se calcula una sola vez y cada llamada
+	 * recibe una copia propia del arbol guardado en el cache.
+	 * @param n índice del nodo que será tomado como nodo raiz
 	 * @return Arbol BFS
 	 */
 	public Graph getBFS(int n) {
-		return getBFSFromGraph(this,n);
+		PathCache arboles=getPathCache();
+		if(arboles==null) {
+			return getBFSFromGraph(this,n);
+		}
+		Graph G=arboles.get(version,"BFS",n);
+		if(G==null) {
+			G=getBFSFromGraph(this,n);
+			arboles.put(version,"BFS",n,G);
+		}
+		return G==null ? null : G.copiaConEtiquetas();
 	}
 	
 	/**
-	 * Funcin que retorna el arbol BFS de la instancia Graph que se manda como parmetro
+	 * Función que retorna el arbol BFS de la instancia Graph que se manda como parámetro
 	 * @param S grafo del cual se desea obtener su arbol BFS
-	 * @param n ndice del nodo que ser tomado como nodo raiz
+	 * @param n índice del nodo que será tomado como nodo raiz
 	 * @return Arbol BFS
 	 */
-	public static Graph getBFSFromGraph(Graph S,int n) {
+	public static Graph getBFSFromGraph(AdjacencySource S,int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("BFS",S,n);
+		long inicio=Metrics.start();
 		if(!S.existsNode(n)) {
 			System.err.println("El nodo raiz no existe");
 			return null;
@@ -718,33 +1311,40 @@ public class Graph {
 		ArrayList<Integer> queue;
 		Graph G = new Graph();
 		int i;
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
+		IdMap ids=S.getIdMap();
+		boolean[] explorados=new boolean[ids.size()];
 		queue = new ArrayList<Integer>();
 		queue.add(n);
-		explorados.put(n, true);
+		explorados[ids.indexOf(n)]=true;
 		G.addNode(n);
+		long visitados=0,aristas=0;
 		
 		while(queue.size() != 0) {
 			i = queue.get(0);
 			queue.remove(0);
+			visitados++;
 			Set<Edge>neighbors=S.getNeighbors(i);
+			aristas+=neighbors.size();
 			for (Edge value : neighbors) {
-				if(!explorados.get(value.b)) {
+				if(!explorados[ids.indexOf(value.b)]) {
 					G.linkNodes(i,value.b,value.w);
-					explorados.put(value.b, true);
+					explorados[ids.indexOf(value.b)]=true;
 					queue.add(value.b);
 				}
 			}
 		}
+		if(Metrics.isEnabled()) {
+			Metrics.count("BFS","nodos",visitados);
+			Metrics.count("BFS","aristas",aristas);
+			Metrics.time("BFS",inicio);
+		}
+		evento.finish(G);
 		return G;
 	}
 	
 	/**
-	 * Funcin que retorna el arbol DFS iterativo de la instancia Graph que manda a llamar el mtodo
-	 * @param n ndice del nodo que ser tomado como nodo raiz
+	 * Función que retorna el arbol DFS iterativo de la instancia Graph que manda a llamar el método
+	 * @param n índice del nodo que será tomado como nodo raiz
 	 * @return Arbol DFSi
 	 */
 	public Graph getDFSi(int n) {
@@ -752,12 +1352,13 @@ public class Graph {
 	}
 	
 	/**
-	 * Funcin que retorna el arbol DFS iterativo de la instancia Graph que se manda como parmetro
+	 * Función que retorna el arbol DFS iterativo de la instancia Graph que se manda como parámetro
 	 * @param S grafo del cual se desea obtener su arbol DFSi
-	 * @param n ndice del nodo que ser tomado como nodo raiz
+	 * @param n índice del nodo que será tomado como nodo raiz
 	 * @return Arbol DFSi
 	 */
-	public static Graph getDFSi_FromGraph(Graph S,int n) {
+	public static Graph getDFSi_FromGraph(AdjacencySource S,int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("DFSi",S,n);
 		if(!S.existsNode(n)) {
 			System.err.println("El nodo raiz no existe");
 			return null;
@@ -765,10 +1366,8 @@ public class Graph {
 		
 		int i;
 		int j;
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
+		IdMap ids=S.getIdMap();
+		boolean[] explorados=new boolean[ids.size()];
 		
 		ArrayList<Integer> visitados,por_visitar;
 		por_visitar = new ArrayList<Integer>();
@@ -785,16 +1384,16 @@ public class Graph {
 			j = por_visitar.size()-1;
 			i = por_visitar.get(j);
 			por_visitar.remove(j);
-			if(explorados.get(i)) {
+			if(explorados[ids.indexOf(i)]) {
 				continue;
 			}
-			explorados.put(i, true);
+			explorados[ids.indexOf(i)]=true;
 			visitados.add(i);
 			backwards=true;
 			
 			neighbors=S.getNeighbors(i);
 			for (Edge value : neighbors) {
-				if(!explorados.get(value.b)) {
+				if(!explorados[ids.indexOf(value.b)]) {
 					backwards=false;
 					por_visitar.add(value.b);
 				}
@@ -806,19 +1405,20 @@ public class Graph {
 				visitados.remove(i);
 				neighbors=S.getNeighbors(j);
 				for (Edge value : neighbors) {
-					if(!explorados.get(value.b)) {
+					if(!explorados[ids.indexOf(value.b)]) {
 						backwards=false;
 					}
 				}
 				
 			}
 		}
+		evento.finish(G);
 		return G;
 	}
 	
 	/**
-	 * Funcin que retorna el arbol DFS recursivo de la instancia Graph que manda a llamar el mtodo
-	 * @param n ndice del nodo que ser tomado como nodo raiz
+	 * Función que retorna el arbol DFS recursivo de la instancia Graph que manda a llamar el método
+	 * @param n índice del nodo que será tomado como nodo raiz
 	 * @return Arbol DFSr
 	 */
 	public Graph getDFSr(int n) {
@@ -826,26 +1426,26 @@ public class Graph {
 	}
 	
 	/**
-	 * Funcin para obtener el arbol DFS recursivo de la instancia Graph que se manda como parmetro
-	 * Esta funcin manda a llamar una funcin recursiva, la diferencia entre esta y la recursiva es que en esta
+	 * Función para obtener el arbol DFS recursivo de la instancia Graph que se manda como parámetro
+	 * Esta función manda a llamar una función recursiva, la diferencia entre esta y la recursiva es que en esta
 	 * se inicializan las variables G y explorados.
 	 * @param S grafo del cual se desea obtener su arbol DFSr
-	 * @param n ndice del nodo que ser tomado como nodo raiz
+	 * @param n índice del nodo que será tomado como nodo raiz
 	 * @return Arbol BFS
 	 */
-	public static Graph getDFSFromGraph(Graph S,int n) {
+	public static Graph getDFSFromGraph(AdjacencySource S,int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("DFSr",S,n);
 		if(!S.existsNode(n)) {
 			System.err.println("El nodo raiz no existe");
 			return null;
 		}
 		Graph G = new Graph();
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
-		explorados.put(n, true);
+		IdMap ids=S.getIdMap();
+		boolean[] explorados=new boolean[ids.size()];
+		explorados[ids.indexOf(n)]=true;
 		G.addNode(n);
-		getDFSr(n,S,G,explorados);
+		getDFSr(n,S,G,ids,explorados);
+		evento.finish(G);
 		return G;
 	}
 	
@@ -853,81 +1453,108 @@ public class Graph {
 	
 	
 	/**
-	 * Funcin recursiva para obtener el arbol DFS. Esta funcin no necesita retornar nada ya que
+	 * Función recursiva para obtener el arbol DFS. Esta función no necesita retornar nada ya que
 	 * al recibir un objeto tipo Grafo, este es un parametro por referencia y al modificarlo dentro
-	 * del mtodo tambien se modifica en el mtodo que lo mand a llamar
+	 * del método tambien se modifica en el método que lo mandó a llamar
 	 * @param n nodo raiz
 	 * @param S Grafo fuente
 	 * @param G Arbol BFS
-	 * @param explorados variable para saber los nodos explorados
+	 * @param ids indices de los nodos de S
+	 * @param explorados variable para saber los nodos explorados, por indice
 	 */
-	private static void getDFSr(int n,Graph S, Graph G, HashMap<Integer,Boolean> explorados) {
+	private static void getDFSr(int n,AdjacencySource S, Graph G, IdMap ids, boolean[] explorados) {
 		Set<Edge>neighbors=S.getNeighbors(n);
 		for (Edge value : neighbors) {
-			if(!explorados.get(value.b)) {
-				explorados.put(value.b,true);
+			if(!explorados[ids.indexOf(value.b)]) {
+				explorados[ids.indexOf(value.b)]=true;
 				G.linkNodes(n,value.b,value.w);
-				getDFSr(value.b,S,G,explorados);
+				getDFSr(value.b,S,G,ids,explorados);
 			}
 		}
 	}
 	
 	/**
-	 * Funcin para obtener el arbol de distancia mnima dado un nodo fuente.
-	 * Est basado en el algoritmo BFS para la exploracin de nodos.
+	 * Función para obtener el arbol de distancia mínima dado un nodo fuente.
+	 * Está basado en el algoritmo BFS para la exploración de nodos.
+	 * Mientras el grafo no se modifique, las llamadas repetidas con el mismo nodo
+	 * fuente regresan una copia propia del arbol guardado en el cache.
 	 * @param n identificador del nodo fuente
-	 * @return Instancia tipo Graph cuyas etiquetas de los nodos estan acompaadas de la distancia minima al nodo fuente.
+	 * @return Instancia tipo Graph cuyas etiquetas de los nodos estan acompañadas de la distancia minima al nodo fuente.
 	 */
 	public Graph getDijkstra(int n) {
-		return Graph.getDijkstra(this, n);
+		PathCache arboles=getPathCache();
+		if(arboles==null) {
+			return Graph.getDijkstra(this, n);
+		}
+		Graph G=arboles.get(version,"Dijkstra",n);
+		if(G==null) {
+			G=Graph.getDijkstra(this, n);
+			arboles.put(version,"Dijkstra",n,G);
+		}
+		return G==null ? null : G.copiaConEtiquetas();
 	}
-	public static Graph getDijkstra(Graph S,int n) {
-		Graph G = new Graph(S.dirigido);
+	public static Graph getDijkstra(AdjacencySource S,int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("Dijkstra",S,n);
+		long inicio=Metrics.start();
+		Graph G = new Graph(S.isDirigido());
 		if(!S.existsNode(n)) {
 			System.err.println("El nodo raiz no existe");
 			return null;
 		}
 		
-		HashMap<Integer, Integer> distancia = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			distancia.put(node,Integer.MAX_VALUE);
-		}
+		IdMap ids=S.getIdMap();
+		int[] distancia = new int[ids.size()];
+		Arrays.fill(distancia,Integer.MAX_VALUE);
 		
 		ArrayList<Integer> queue;
 		
 		int i,dist;
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
+		boolean[] explorados=new boolean[ids.size()];
 		queue = new ArrayList<Integer>();
 		queue.add(n);
-		explorados.put(n, true);
-		distancia.put(n, 0);
+		explorados[ids.indexOf(n)]=true;
+		distancia[ids.indexOf(n)]=0;
 		//G.addNode(n);
+		long aristas=0,relajaciones=0,push=1,pop=0;
 		
 		while(queue.size() != 0) {
 			i = queue.get(0);
 			queue.remove(0);
+			pop++;
 			Set<Edge>neighbors=S.getNeighbors(i);
 			for (Edge value : neighbors) {
+				aristas++;
 				G.linkNodes(i, value.b,value.w);
-				dist=distancia.get(i);
-				if ((dist+S.getW(i,value.b)) < distancia.get(value.b)) {
-					distancia.put(value.b, dist+S.getW(i,value.b));
+				dist=distancia[ids.indexOf(i)];
+				if ((dist+S.getW(i,value.b)) < distancia[ids.indexOf(value.b)]) {
+					distancia[ids.indexOf(value.b)]=dist+S.getW(i,value.b);
+					relajaciones++;
 				}
-				if(!explorados.get(value.b)) {
-					explorados.put(value.b, true);
+				if(!explorados[ids.indexOf(value.b)]) {
+					explorados[ids.indexOf(value.b)]=true;
 					queue.add(value.b);
+					push++;
 				}
 			}
 		}
 
 
-		for ( int node : G.nodes.keySet() ) {
-			G.labels.put(node,node+"_"+distancia.get(node));
+		//las etiquetas se generan al exportar; los nodos que se agreguen despues al arbol (o al grafo
+		//original, cuya tabla de indices sigue creciendo) no tienen distancia y usan su identificador
+		G.labelProvider=node -> {
+			int k=ids.indexOf(node);
+			return k<0 || k>=distancia.length ? Integer.toString(node) : node+"_"+distancia[k];
+		};
+		if(Metrics.isEnabled()) {
+			Metrics.count("Dijkstra","nodos",pop);
+			Metrics.count("Dijkstra","aristas",aristas);
+			Metrics.count("Dijkstra","relajaciones",relajaciones);
+			Metrics.count("Dijkstra","push",push);
+			Metrics.count("Dijkstra","pop",pop);
+			Metrics.time("Dijkstra",inicio);
 		}
 		
+		evento.finish(G);
 		return G;
 	}
 	
@@ -942,26 +1569,25 @@ public class Graph {
 	
 	/**
 	 * Obtiene el componente conectado de un grafo a partir de un nodo fuente.
-	 * @param S Grafo del cual se obtendr el componente conectado
+	 * @param S Grafo del cual se obtendrá el componente conectado
 	 * @param n identificador del nodo fuente
 	 * @return Instancia tipo Graph
 	 */
-	public static Graph getConnectedGraph(Graph S, int n){
+	public static Graph getConnectedGraph(AdjacencySource S, int n){
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("ConnectedGraph",S,n);
 		if(!S.existsNode(n)) {
 			System.err.println("El nodo raiz no existe");
 			return null;
 		}
 		
 		ArrayList<Integer> queue;
-		Graph G = new Graph(S.dirigido);
+		Graph G = new Graph(S.isDirigido());
 		int i;
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
+		IdMap ids=S.getIdMap();
+		boolean[] explorados=new boolean[ids.size()];
 		queue = new ArrayList<Integer>();
 		queue.add(n);
-		explorados.put(n, true);
+		explorados[ids.indexOf(n)]=true;
 		G.addNode(n);
 		
 		while(queue.size() != 0) {
@@ -970,20 +1596,21 @@ public class Graph {
 			Set<Edge>neighbors=S.getNeighbors(i);
 			for (Edge value : neighbors) {
 				G.linkNodes(i,value.b,value.w);
-				if(!explorados.get(value.b)) {
-					explorados.put(value.b, true);
+				if(!explorados[ids.indexOf(value.b)]) {
+					explorados[ids.indexOf(value.b)]=true;
 					queue.add(value.b);
 				}
 			}
 		}
+		evento.finish(G);
 		return G;
 	}
 	
 	/**
 	 * Funcion para unir los conjuntos de dados dos nodos. Para representar un conjunto
-	 * se utiliz una tabla hash donde la key es el identificador del nodo
+	 * se utilizó una tabla hash donde la key es el identificador del nodo
 	 * y el value el valor del conjunto al cual pertenece.
-	 * @param conj tabla hash con la informacin del conjunto
+	 * @param conj tabla hash con la información del conjunto
 	 * @param a identificador del nodo a
 	 * @param b identificador del nodo b
 	 */
@@ -1013,20 +1640,49 @@ public class Graph {
 	 * @return Instancia tipo grafo con el arbol MST
 	 */
 	public static Graph getKruskal(Graph S,int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("Kruskal",S,n);
+		long inicio=Metrics.start();
 		S=S.getConnectedGraph(n);
-		Graph G = new Graph(S.dirigido);
-		ArrayList<Edge> edges = S.getEdges();
+		Graph G = new Graph(S.isDirigido());
+		ArrayList<Edge> edges = S.getEdges(true,true,false);
 		
 		HashMap<Integer, Integer> conjunto = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
+		for ( int node : S.getNodes() ) {
 			conjunto.put(node,node);
 		}
+		long uniones=0;
 		for (Edge edge: edges) {
 			if( (conjunto.get(edge.a)-conjunto.get(edge.b))!=0) {
 				G.linkNodes(edge);
 				Union(conjunto,edge.a,edge.b);
+				uniones++;
 			}
 		}
+		if(Metrics.isEnabled()) {
+			Metrics.count("Kruskal","nodos",S.getSize());
+			Metrics.count("Kruskal","aristas",edges.size());
+			Metrics.count("Kruskal","find",2L*edges.size());
+			Metrics.count("Kruskal","union",uniones);
+			Metrics.time("Kruskal",inicio);
+		}
+		evento.finish(G);
+		return G;
+	}
+	
+	
+	/**
+	 * Funcion para obtener el grafo arbol MST usando el algoritmo de Boruvka en paralelo
+	 * @param n Identificador del nodo para obtener su componente conectado antes de aplicar el algoritmo
+	 * @return Instancia tipo grafo con el arbol MST
+	 */
+	public Graph getBoruvka(int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("Boruvka",this,n);
+		Graph S=this.getConnectedGraph(n);
+		if(S==null) {
+			return null;
+		}
+		Graph G=Boruvka.getForest(S);
+		evento.finish(G);
 		return G;
 	}
 	
@@ -1043,39 +1699,37 @@ public class Graph {
 	
 	/**
 	 * Funcion para comprobar si estan conectados dos nodos.
-	 * Est basado en el algoritmo BFS para exploracin de grafos
+	 * Está basado en el algoritmo BFS para exploración de grafos
 	 * @param S Grafo desde el cual se hace el recorrido.
 	 * @param a identificador del nodo a
 	 * @param b identificador del nodo b
 	 * @return retorna true si estan conectados o false de lo contrario.
 	 */
-	public static boolean isConnected(Graph S,int a,int b) {
+	public static boolean isConnected(AdjacencySource S,int a,int b) {
 		if(!S.existsNode(a) || !S.existsNode(b) ) {
 			System.err.println("El nodo raiz no existe");
 			return false;
 		}
 		
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
+		IdMap ids=S.getIdMap();
+		boolean[] explorados=new boolean[ids.size()];
 		
 		ArrayList<Integer> queue;
 		int i;
 		queue = new ArrayList<Integer>();
 		queue.add(a);
-		explorados.put(a, true);
+		explorados[ids.indexOf(a)]=true;
 		
 		while(queue.size() != 0) {
 			i = queue.get(0);
 			queue.remove(0);
 			Set<Edge>neighbors=S.getNeighbors(i);
 			for (Edge value : neighbors) {
-				if(!explorados.get(value.b)) {
+				if(!explorados[ids.indexOf(value.b)]) {
 					if(b==value.b) {
 						return true;
 					}
-					explorados.put(value.b, true);
+					explorados[ids.indexOf(value.b)]=true;
 					queue.add(value.b);
 				}
 			}
@@ -1095,6 +1749,20 @@ public class Graph {
 		return Graph.getKruskal_i(this,n);
 	}
 	
+	/**
+	 * Funcion para obtener el arbol MST de un grafo usando el
+	 * algoritmo de kruskal inverso, con la opcion de cancelarlo y conocer su avance.
+	 * @param n identificador del nodo fuene para obtener primero el
+	 * 	componente conectado del grafo.
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance, puede ser null
+	 * @return Instancia tipo Graph con el arbol MST
+	 * @throws CancelledException si el token se cancela antes de terminar
+	 */
+	public Graph getKruskal_i(int n,CancellationToken token,ProgressListener listener) {
+		return Graph.getKruskal_i(this,n,token,listener);
+	}
+	
 	/**
 	 * Funcion para obtener el arbol MST de un grafo usando el
 	 * algoritmo de kruskal inverso
@@ -1104,17 +1772,47 @@ public class Graph {
 	 * @return Instancia tipo Graph con el arbol MST
 	 */
 	public static Graph getKruskal_i(Graph S,int n) {
+		return getKruskal_i(S,n,null,null);
+	}
+	
+	/**
+	 * Funcion para obtener el arbol MST de un grafo usando el
+	 * algoritmo de kruskal inverso, con la opcion de cancelarlo y conocer su avance.
+	 * El token se revisa antes de procesar cada arista.
+	 * @param S grafo al cual obtener su MST
+	 * @param n identificador del nodo fuene para obtener primero el
+	 * 	componente conectado del grafo.
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance (fraccion de aristas procesadas), puede ser null
+	 * @return Instancia tipo Graph con el arbol MST
+	 * @throws CancelledException si el token se cancela antes de terminar
+	 */
+	public static Graph getKruskal_i(Graph S,int n,CancellationToken token,ProgressListener listener) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("Kruskal_i",S,n);
+		long inicio=Metrics.start();
 		S=S.getConnectedGraph(n);
 		Graph G = S.clone();
-		ArrayList<Edge> edges = G.getEdges(false);
-		
+		ArrayList<Edge> edges = G.getEdges(false,true,false);
 		
+		long restauradas=0;
+		TaskControl control=new TaskControl(token,listener,edges.size(),0,null);
 		for (Edge edge: edges) {
+			control.step();
 			G.dropEdge(edge);
 			if( !G.isConnected(edge.a,edge.b) ) {
 				G.linkNodes(edge);
+				restauradas++;
 			}
 		}
+		control.done();
+		if(Metrics.isEnabled()) {
+			Metrics.count("Kruskal_i","nodos",S.getSize());
+			Metrics.count("Kruskal_i","aristas",edges.size());
+			Metrics.count("Kruskal_i","conectividad",edges.size());
+			Metrics.count("Kruskal_i","eliminadas",edges.size()-restauradas);
+			Metrics.time("Kruskal_i",inicio);
+		}
+		evento.finish(G);
 		return G;
 	}
 	
@@ -1137,7 +1835,7 @@ public class Graph {
 	
 	
 	/**
-	 * Funcion para obtener el arbol de expansion mnima usando el algoritmo de Prim.
+	 * Funcion para obtener el arbol de expansion mínima usando el algoritmo de Prim.
 	 * @param S 
 	 * @param n
 	 * @return
@@ -1148,27 +1846,26 @@ public class Graph {
 	
 	
 	/**
-	 * Funcion para obtener el arbol de expansion mnima usando el algoritmo de Prim.
-	 * Lo nombr variante porque no es igual al algoritmo del video
-	 * pero si es igual a la prueba de escritorio que realiz. 
+	 * Funcion para obtener el arbol de expansion mínima usando el algoritmo de Prim.
+	 * Lo nombré variante porque no es igual al algoritmo del video
+	 * pero si es igual a la prueba de escritorio que realizó. 
 	 * @param S Grafo del cual obtener su MST
-	 * @param n identificador del nodo con el que comenzar el algoritmo
+	 * @param n identificador del nodo con el que comenzará el algoritmo
 	 * @return instancias tipo Graph con el MST
 	 */
-	public static Graph getPrim_variante(Graph S,int n) {
-		Graph G = new Graph(S.dirigido);
+	public static Graph getPrim_variante(AdjacencySource S,int n) {
+		GraphAlgorithmEvent evento=GraphAlgorithmEvent.start("Prim",S,n);
+		Graph G = new Graph(S.isDirigido());
 		
 		if(!S.existsNode(n) ) {
 			System.err.println("El nodo raiz no existe");
 			return null;
 		}
 		
-		HashMap<Integer, Boolean> explorados = new HashMap<>();
-		for ( int node : S.nodes.keySet() ) {
-			explorados.put(node,false);
-		}
+		IdMap ids=S.getIdMap();
+		boolean[] explorados=new boolean[ids.size()];
 		ArrayList<Edge> queue= new ArrayList<Edge>();
-		explorados.put(n, true);
+		explorados[ids.indexOf(n)]=true;
 		
 		Set<Edge>neighbors=S.getNeighbors(n);
 		for (Edge edge : neighbors) {
@@ -1180,58 +1877,79 @@ public class Graph {
 			i = min_edge(queue);
 			queue.remove(i);
 			G.linkNodes(i);
-			explorados.put(i.b, true);
+			explorados[ids.indexOf(i.b)]=true;
 			neighbors=S.getNeighbors(i.b);
 			for (Edge edge : neighbors) {
-				if(!explorados.get(edge.b)) {
+				if(!explorados[ids.indexOf(edge.b)]) {
 					queue.add(edge);
 				}
 			}
-			for (Edge edge : queue) {
-				if (edge.b==i.b) {
-					queue.remove(edge);
-				}
-			}
+			int destino=i.b;
+			queue.removeIf(edge -> edge.b==destino); //se quita sin iterar la lista que se modifica
 		}
 		
+		evento.finish(G);
 		return G;
 	}
 	
 	
+	/**
+	 * Funcion para preprocesar el grafo en una jerarquia de contraccion, util cuando se
+	 * harán muchas consultas de distancia minima entre pares de nodos sobre el mismo grafo.
+	 * @return Instancia tipo ContractionHierarchy
+	 */
+	public ContractionHierarchy getContractionHierarchy() {
+		return ContractionHierarchy.build(this);
+	}
+	
+	
 	/**
 	 * funcion que retorna un String con el formato GraphViz 
 	 * @return String con formato de graph viz
 	 */
 	public String toGrahpViz() {
-		String res="";
+		StringWriter res=new StringWriter();
+		try {
+			writeGraphViz(res);
+		} catch (IOException e) { //StringWriter no lanza IOException
+			throw new UncheckedIOException(e);
+		}
+		return res.toString();
+	}
+	
+	/**
+	 * Funcion que escribe el grafo en formato GraphViz directamente en un Writer,
+	 * sin construir antes un String con todo el contenido.
+	 * @param out destino del texto
+	 * @throws IOException si ocurre un error al escribir
+	 */
+	public void writeGraphViz(Writer out) throws IOException {
 		String arista;
 		
+		out.write(dirigido ? "digraph {\n" : "graph {\n");
 		for ( int node : nodes.keySet() ) {
-			res+="  "+node+" [label=\""+labels.get(node)+"\"];\n";
+			out.write("  "+node+" [label=\""+getLabel(node)+"\"];\n");
 		}
 		if(dirigido) {
 			arista=" -> ";
-			res="digraph {\n"+res;
 			for (Map.Entry<Integer,Set<Edge>> n : nodes.entrySet()) {
 				int node=n.getKey();
 				for (Edge value : n.getValue()) {
-					res+="  "+node+arista+value.b+" [label="+value.w+"];\n";
+					out.write("  "+node+arista+value.b+" [label=\""+value.w+"\"];\n");
 				}
 		    }
 		}else {
 			arista=" -- ";
-			res="graph {\n"+res;
 			for (Map.Entry<Integer,Set<Edge>> n : nodes.entrySet()) {
 				int node=n.getKey();
 				for (Edge value : n.getValue()) {
 					if (node<value.b) {
-						res+="  "+node+arista+value.b+" [label=\""+value.w+"\"];\n";
+						out.write("  "+node+arista+value.b+" [label=\""+value.w+"\"];\n");
 					}
 				}
 		    }
 		}
 		
-		res+="}";
-		return res;
+		out.write("}");
 	}
 }
\ No newline at end of file
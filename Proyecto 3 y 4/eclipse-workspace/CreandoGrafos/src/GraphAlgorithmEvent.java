@@ -0,0 +1,98 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder emitido por los algoritmos de recorrido y de arbol
+ * (BFS, DFS, Dijkstra, componente conectado, Kruskal, Kruskal inverso, Prim y Boruvka).
+ * Los datos del grafo solo se calculan si el evento esta habilitado en la grabacion,
+ * asi que sin grabacion activa el costo es practicamente nulo.
+ */
+@Name("CreandoGrafos.Algorithm")
+@Label("Algoritmo de grafos")
+@Category({"CreandoGrafos"})
+@Description("Ejecucion de un algoritmo sobre un grafo")
+@StackTrace(false)
+public class GraphAlgorithmEvent extends jdk.jfr.Event {
+
+	@Label("Algoritmo")
+	String algoritmo;
+
+	@Label("Nodos")
+	int nodos;
+
+	@Label("Aristas")
+	long aristas;
+
+	@Label("Dirigido")
+	boolean dirigido;
+
+	@Label("Nodo raiz")
+	int raiz;
+
+	@Label("Nodos del resultado")
+	int nodosResultado;
+
+	@Label("Aristas del resultado")
+	long aristasResultado;
+
+	private transient AdjacencySource entrada;
+
+	/**
+	 * Funcion para iniciar la medicion de un algoritmo
+	 * @param algoritmo nombre del algoritmo
+	 * @param S grafo de entrada
+	 * @param raiz nodo raiz del algoritmo
+	 * @return evento iniciado
+	 */
+	static GraphAlgorithmEvent start(String algoritmo,AdjacencySource S,int raiz) {
+		GraphAlgorithmEvent e=new GraphAlgorithmEvent();
+		e.algoritmo=algoritmo;
+		e.entrada=S;
+		e.raiz=raiz;
+		e.begin();
+		return e;
+	}
+
+	/**
+	 * Funcion para terminar la medicion y registrar el evento si la grabacion lo requiere
+	 * @param resultado grafo resultante
+	 */
+	void finish(AdjacencySource resultado) {
+		end();
+		if(shouldCommit()) {
+			nodos=entrada.getSize();
+			aristas=contarAristas(entrada);
+			dirigido=entrada.isDirigido();
+			if(resultado!=null) {
+				nodosResultado=resultado.getSize();
+				aristasResultado=contarAristas(resultado);
+			}
+			commit();
+		}
+		entrada=null;
+	}
+
+	/**
+	 * Funcion para contar las aristas de un grafo. En grafos no dirigidos cada arista cuenta una vez.
+	 * @param S grafo
+	 * @return numero de aristas
+	 */
+	static long contarAristas(AdjacencySource S) {
+		long m=0;
+		if(S instanceof OffHeapGraph) {
+			m=((OffHeapGraph)S).getEdgeCount();
+		}else if(S instanceof CompressedGraph) {
+			for (int node : S.getNodes()) {
+				m+=((CompressedGraph)S).getDegree(node);
+			}
+		}else {
+			for (int node : S.getNodes()) {
+				m+=S.getNeighbors(node).size();
+			}
+		}
+		return S.isDirigido() ? m : m/2;
+	}
+}
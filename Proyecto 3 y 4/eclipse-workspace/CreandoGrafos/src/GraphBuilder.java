@@ -0,0 +1,234 @@
+import java.util.Arrays;
+
+/**
+ * Clase para construir grafos grandes de una sola vez. Las aristas se acumulan en arreglos
+ * primitivos, sin crear objetos Edge ni buscar duplicados en cada insercion como linkNodes.
+ * Al construir, se ordenan todas con radix (EdgeSorter), se eliminan las repetidas y se
+ * agregan las inversas de un grafo no dirigido en una sola pasada, en tiempo O(m).
+ * Si una arista se agrega varias veces se conserva la primera, igual que con linkNodes
+ * (en grafos no dirigidos a-b y b-a son la misma arista).
+ * Implementa EdgeSink, asi los generadores y BinaryEdgeSink.replay pueden escribir en el.
+ */
+public class GraphBuilder implements EdgeSink {
+
+	private boolean dirigido;
+	private int[] origen;
+	private int[] destino;
+	private int[] peso;
+	private int m;
+	private int[] nodos;
+	private int nn;
+
+	/**
+	 * Constructor de un grafo no dirigido
+	 */
+	public GraphBuilder() {
+		this(false);
+	}
+
+	/**
+	 * Constructor
+	 * @param dirigido si el valor es true, sera un grafo dirigido
+	 */
+	public GraphBuilder(boolean dirigido) {
+		this(dirigido,16);
+	}
+
+	/**
+	 * Constructor
+	 * @param dirigido si el valor es true, sera un grafo dirigido
+	 * @param capacidad numero de aristas esperado
+	 */
+	public GraphBuilder(boolean dirigido,int capacidad) {
+		this.dirigido=dirigido;
+		capacidad=Math.max(4,capacidad);
+		origen=new int[capacidad];
+		destino=new int[capacidad];
+		peso=new int[capacidad];
+		nodos=new int[16];
+	}
+
+	public boolean isDirigido() {
+		return dirigido;
+	}
+
+	/**
+	 * Funcion para obtener el numero de aristas agregadas, incluyendo las repetidas
+	 * @return numero de aristas
+	 */
+	public int getEdgeCount() {
+		return m;
+	}
+
+	/**
+	 * Funcion para agregar un nodo, aunque no tenga aristas
+	 * @param id identificador del nodo
+	 */
+	@Override
+	public void addNode(int id) {
+		if(nn==nodos.length) {
+			nodos=Arrays.copyOf(nodos,nn*2);
+		}
+		nodos[nn++]=id;
+	}
+
+	/**
+	 * Funcion para agregar una arista con peso aleatorio
+	 * @param a nodo a
+	 * @param b nodo b
+	 */
+	public void addEdge(int a,int b) {
+		addEdge(a,b,Edge.randomW());
+	}
+
+	/**
+	 * Funcion para agregar una arista. Sus nodos se agregan si no existen.
+	 * @param a nodo a
+	 * @param b nodo b
+	 * @param w peso de la arista
+	 */
+	@Override
+	public void addEdge(int a,int b,int w) {
+		if(m==origen.length) {
+			crecer(m+1);
+		}
+		origen[m]=a;
+		destino[m]=b;
+		peso[m]=w;
+		m++;
+	}
+
+	/**
+	 * Funcion para agregar varias aristas
+	 * @param a nodos a
+	 * @param b nodos b
+	 * @param w pesos
+	 * @param cantidad numero de aristas que se toman de los arreglos
+	 */
+	public void addEdges(int[] a,int[] b,int[] w,int cantidad) {
+		if(m+cantidad>origen.length) {
+			crecer(m+cantidad);
+		}
+		System.arraycopy(a,0,origen,m,cantidad);
+		System.arraycopy(b,0,destino,m,cantidad);
+		System.arraycopy(w,0,peso,m,cantidad);
+		m+=cantidad;
+	}
+
+	private void crecer(int minimo) {
+		int t=Math.max(minimo,origen.length*2);
+		origen=Arrays.copyOf(origen,t);
+		destino=Arrays.copyOf(destino,t);
+		peso=Arrays.copyOf(peso,t);
+	}
+
+	/**
+	 * Funcion para descartar los nodos y aristas agregados
+	 */
+	public void clear() {
+		m=0;
+		nn=0;
+	}
+
+	/**
+	 * Funcion para construir el grafo en formato CSR. El constructor puede seguir usandose despues.
+	 * @return Instancia tipo CSRGraph
+	 */
+	public CSRGraph build() {
+		//identificadores de todos los nodos, ordenados y sin repetir; el indice interno es su posicion
+		int[] todos=new int[nn+2*m];
+		System.arraycopy(origen,0,todos,0,m);
+		System.arraycopy(destino,0,todos,m,m);
+		System.arraycopy(nodos,0,todos,2*m,nn);
+		int[] orden=EdgeSorter.sort(todos,true,true);
+		int[] indice=new int[todos.length];
+		int[] ids=new int[todos.length];
+		int n=0;
+		for(int i=0;i<orden.length;i++) {
+			int id=todos[orden[i]];
+			if(n==0 || id!=ids[n-1]) {
+				ids[n++]=id;
+			}
+			indice[orden[i]]=n-1;
+		}
+		ids=Arrays.copyOf(ids,n);
+		todos=null;
+		orden=null;
+
+		//arcos con indices internos; en grafos no dirigidos la inversa de la arista j es el arco 2j+1
+		int arcos=dirigido ? m : 2*m;
+		int[] u=new int[arcos];
+		int[] v=new int[arcos];
+		for(int j=0;j<m;j++) {
+			int a=indice[j];
+			int b=indice[m+j];
+			if(dirigido) {
+				u[j]=a;
+				v[j]=b;
+			}else {
+				u[2*j]=a;
+				v[2*j]=b;
+				u[2*j+1]=b;
+				v[2*j+1]=a;
+			}
+		}
+
+		//orden estable por (u, v): primero por v y despues por u
+		int[] porV=EdgeSorter.sort(v,true,true);
+		int[] llave=new int[arcos];
+		for(int i=0;i<arcos;i++) {
+			llave[i]=u[porV[i]];
+		}
+		int[] porU=EdgeSorter.sort(llave,true,true);
+
+		//de cada grupo de arcos iguales se queda el primero, que es el que se agrego antes
+		int[] offsets=new int[n+1];
+		int[] targets=new int[arcos];
+		int[] weights=new int[arcos];
+		int k=0;
+		int ua=-1;
+		int va=-1;
+		for(int i=0;i<arcos;i++) {
+			int j=porV[porU[i]];
+			if(u[j]==ua && v[j]==va) {
+				continue;
+			}
+			ua=u[j];
+			va=v[j];
+			offsets[ua+1]++;
+			targets[k]=va;
+			weights[k]=peso[dirigido ? j : j>>1];
+			k++;
+		}
+		for(int i=0;i<n;i++) {
+			offsets[i+1]+=offsets[i];
+		}
+		if(k<arcos) {
+			targets=Arrays.copyOf(targets,k);
+			weights=Arrays.copyOf(weights,k);
+		}
+		return new CSRGraph(dirigido,ids,offsets,targets,weights);
+	}
+
+	/**
+	 * Funcion para construir el grafo como una instancia de Graph
+	 * @return Instancia tipo Graph
+	 */
+	public Graph toGraph() {
+		return build().toGraph();
+	}
+
+	/**
+	 * Funcion que se llama al iniciar un generador: descarta lo agregado antes y define el tipo de grafo
+	 * @param dirigido true si el grafo es dirigido
+	 */
+	@Override
+	public void start(boolean dirigido) {
+		this.dirigido=dirigido;
+		clear();
+	}
+
+	@Override
+	public void finish() {
+	}
+}
@@ -0,0 +1,64 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder emitido al leer o guardar un grafo en un archivo .gv
+ */
+@Name("CreandoGrafos.File")
+@Label("Archivo de grafo")
+@Category({"CreandoGrafos"})
+@Description("Lectura o escritura de un grafo en disco")
+public class GraphFileEvent extends jdk.jfr.Event {
+
+	@Label("Operacion")
+	String operacion;
+
+	@Label("Archivo")
+	String archivo;
+
+	@Label("Nodos")
+	int nodos;
+
+	@Label("Aristas")
+	long aristas;
+
+	@Label("Dirigido")
+	boolean dirigido;
+
+	@Label("Exito")
+	boolean exito;
+
+	/**
+	 * Funcion para iniciar la medicion de una lectura o escritura
+	 * @param operacion "lectura" o "escritura"
+	 * @param archivo nombre del archivo
+	 * @return evento iniciado
+	 */
+	static GraphFileEvent start(String operacion,String archivo) {
+		GraphFileEvent e=new GraphFileEvent();
+		e.operacion=operacion;
+		e.archivo=archivo;
+		e.begin();
+		return e;
+	}
+
+	/**
+	 * Funcion para terminar la medicion y registrar el evento si la grabacion lo requiere
+	 * @param g grafo leido o guardado
+	 * @param exito false si la operacion termino con un error
+	 */
+	void finish(Graph g,boolean exito) {
+		end();
+		if(shouldCommit()) {
+			this.exito=exito;
+			if(g!=null) {
+				nodos=g.getSize();
+				aristas=GraphAlgorithmEvent.contarAristas(g);
+				dirigido=g.isDirigido();
+			}
+			commit();
+		}
+	}
+}
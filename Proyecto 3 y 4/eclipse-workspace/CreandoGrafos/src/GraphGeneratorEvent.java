@@ -0,0 +1,61 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder emitido por los generadores de grafos (gen*).
+ */
+@Name("CreandoGrafos.Generator")
+@Label("Generador de grafos")
+@Category({"CreandoGrafos"})
+@Description("Generacion de un grafo aleatorio")
+@StackTrace(false)
+public class GraphGeneratorEvent extends jdk.jfr.Event {
+
+	@Label("Modelo")
+	String modelo;
+
+	@Label("Nodos")
+	int nodos;
+
+	@Label("Aristas")
+	long aristas;
+
+	@Label("Dirigido")
+	boolean dirigido;
+
+	@Label("Rechazos")
+	long rechazos;
+
+	/**
+	 * Funcion para iniciar la medicion de un generador
+	 * @param modelo nombre del generador
+	 * @return evento iniciado
+	 */
+	static GraphGeneratorEvent start(String modelo) {
+		GraphGeneratorEvent e=new GraphGeneratorEvent();
+		e.modelo=modelo;
+		e.begin();
+		return e;
+	}
+
+	/**
+	 * Funcion para terminar la medicion y registrar el evento si la grabacion lo requiere
+	 * @param n numero de nodos
+	 * @param aristas numero de aristas generadas
+	 * @param dirigido si el grafo es dirigido
+	 * @param rechazos sorteos descartados
+	 */
+	void finish(int n,long aristas,boolean dirigido,long rechazos) {
+		end();
+		if(shouldCommit()) {
+			this.nodos=n;
+			this.aristas=aristas;
+			this.dirigido=dirigido;
+			this.rechazos=rechazos;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase para leer y guardar grafos de forma asincrona. Cada operacion regresa un
+ * CompletableFuture, asi el llamador puede seguir calculando mientras se escriben o
+ * leen los archivos. El numero de operaciones en curso esta limitado: si se alcanza
+ * el limite, las operaciones nuevas esperan en una cola hasta que termine alguna,
+ * pero loadAsync y saveAsync regresan de inmediato.
+ * Los errores no se imprimen, el futuro termina con una GraphIOException.
+ */
+public class GraphIO implements AutoCloseable {
+
+	private final ThreadPoolExecutor hilos;
+	private final Semaphore enCurso; //solo cuenta las operaciones en curso, nunca hace esperar
+
+	/**
+	 * Constructor con un limite de 16 operaciones en curso
+	 */
+	public GraphIO() {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * @param maxEnCurso numero maximo de lecturas y escrituras simultaneas
+	 */
+	public GraphIO(int maxEnCurso) {
+		int max=Math.max(1,maxEnCurso);
+		enCurso=new Semaphore(max);
+		//un hilo por operacion en curso; las demas esperan en la cola sin bloquear al llamador
+		hilos=new ThreadPoolExecutor(max,max,30,TimeUnit.SECONDS,new LinkedBlockingQueue<>(),r -> {
+			Thread t=new Thread(r,"GraphIO");
+			t.setDaemon(true);
+			return t;
+		});
+		hilos.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Funcion para cargar un grafo de un archivo .gv sin bloquear al llamador
+	 * @param filename nombre del archivo
+	 * @return futuro con el grafo, o que termina con GraphIOException si no se pudo leer
+	 */
+	public CompletableFuture<Graph> loadAsync(String filename) {
+		CompletableFuture<Graph> res=new CompletableFuture<>();
+		try {
+			hilos.execute(() -> {
+				enCurso.acquireUninterruptibly();
+				try {
+					res.complete(Graph.readFile(filename));
+				} catch (IOException | RuntimeException e) {
+					res.completeExceptionally(new GraphIOException(filename,GraphIOException.Operacion.LECTURA,e));
+				} finally {
+					enCurso.release();
+				}
+			});
+		} catch (RuntimeException e) { //por ejemplo, si ya se llamo a close
+			res.completeExceptionally(new GraphIOException(filename,GraphIOException.Operacion.LECTURA,e));
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para guardar un grafo en un archivo .gv sin bloquear al llamador.
+	 * El grafo no debe modificarse hasta que el futuro termine.
+	 * @param g grafo a guardar
+	 * @param filename nombre del archivo
+	 * @return futuro con la ruta del archivo escrito, o que termina con GraphIOException si no se pudo escribir
+	 */
+	public CompletableFuture<Path> saveAsync(Graph g,String filename) {
+		CompletableFuture<Path> res=new CompletableFuture<>();
+		try {
+			hilos.execute(() -> {
+				enCurso.acquireUninterruptibly();
+				try {
+					g.writeFile(filename);
+					res.complete(Paths.get(filename));
+				} catch (IOException | RuntimeException e) {
+					res.completeExceptionally(new GraphIOException(filename,GraphIOException.Operacion.ESCRITURA,e));
+				} finally {
+					enCurso.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			res.completeExceptionally(new GraphIOException(filename,GraphIOException.Operacion.ESCRITURA,e));
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener cuantas operaciones mas pueden iniciarse sin esperar en la cola
+	 * @return lugares libres
+	 */
+	public int getAvailable() {
+		return enCurso.availablePermits();
+	}
+
+	/**
+	 * Funcion para obtener cuantas operaciones esperan en la cola
+	 * @return operaciones que aun no inician
+	 */
+	public int getQueued() {
+		return hilos.getQueue().size();
+	}
+
+	/**
+	 * Termina los hilos cuando acaben las operaciones pendientes. Despues ya no se aceptan operaciones.
+	 */
+	@Override
+	public void close() {
+		hilos.shutdown();
+	}
+}
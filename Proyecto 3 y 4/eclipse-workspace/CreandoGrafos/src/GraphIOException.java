@@ -0,0 +1,38 @@
+import java.io.IOException;
+
+/**
+ * Error de lectura o escritura de un grafo. Indica el archivo y la operacion que fallo;
+ * la causa original (por ejemplo FileNotFoundException o un error de formato) queda en getCause.
+ */
+public class GraphIOException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Operacion que fallo
+	 */
+	public enum Operacion { LECTURA, ESCRITURA }
+
+	private final String filename;
+	private final Operacion operacion;
+
+	/**
+	 * Constructor
+	 * @param filename archivo que se intentaba leer o escribir
+	 * @param operacion operacion que fallo
+	 * @param causa error original
+	 */
+	public GraphIOException(String filename,Operacion operacion,Throwable causa) {
+		super((operacion==Operacion.LECTURA ? "Error al cargar el grafo: " : "Error al guardar el grafo: ")+filename,causa);
+		this.filename=filename;
+		this.operacion=operacion;
+	}
+
+	public String getFilename() {
+		return filename;
+	}
+
+	public Operacion getOperacion() {
+		return operacion;
+	}
+}
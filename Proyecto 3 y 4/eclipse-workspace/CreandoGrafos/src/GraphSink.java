@@ -0,0 +1,34 @@
+/**
+ * EdgeSink que construye el grafo en memoria con linkNodes.
+ */
+public class GraphSink implements EdgeSink {
+
+	private Graph g;
+
+	@Override
+	public void start(boolean dirigido) {
+		g=new Graph(dirigido);
+	}
+
+	@Override
+	public void addNode(int id) {
+		g.addNode(id);
+	}
+
+	@Override
+	public void addEdge(int a,int b,int w) {
+		g.linkNodes(a,b,w);
+	}
+
+	@Override
+	public void finish() {
+	}
+
+	/**
+	 * Funcion para obtener el grafo construido
+	 * @return Instancia tipo Graph
+	 */
+	public Graph getGraph() {
+		return g;
+	}
+}
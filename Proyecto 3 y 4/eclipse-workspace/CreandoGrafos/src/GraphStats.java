@@ -0,0 +1,472 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estadisticas de un grafo calculadas en una sola pasada sobre sus nodos y aristas: numero de
+ * nodos y aristas, grado minimo, maximo y promedio, histograma de grados y de pesos, lazos y
+ * aristas repetidas. Implementa EdgeSink, por lo que puede recibir directamente la salida de
+ * un generador, o leerse de un archivo .gv o binario con fromGraphViz y fromBinary sin cargar
+ * el grafo. La memoria es proporcional al numero de nodos (un contador de grado por nodo) y no
+ * al de aristas: las repetidas se detectan con un filtro de Bloom, por lo que su numero es una
+ * estimacion que puede contar de mas (ver getDuplicateFalsePositiveRate). Al leer archivos o grafos
+ * en memoria el filtro se dimensiona con el numero de aristas (o una cota a partir del tamano del
+ * archivo); al usarlo como EdgeSink conviene pasar bitsBloom al constructor.
+ * Las aristas se cuentan tal como llegan, incluyendo las repetidas, y todas las demas estadisticas
+ * son exactas.
+ */
+public class GraphStats implements EdgeSink {
+
+	private static final int PESOS_DIRECTOS=1024; //pesos 0..1023 se cuentan en un arreglo
+	private static final int HASHES=4;
+	private static final int BITS_POR_ARISTA=10; //falsos positivos menores al 1% con 4 hashes
+	private static final int MAX_BITS=1<<30;     //filtro de 128 MB como maximo
+	private static final int BYTES_ARISTA_GV=20; //la linea de arista mas corta que escribe writeGraphViz
+	private static final int BYTES_ARISTA_BIN=13; //registro de arista de BinaryEdgeSink
+
+	private boolean dirigido;
+	private IdMap ids;
+	private int[] salida;  //grado de salida, o grado si el grafo es no dirigido
+	private int[] entrada; //grado de entrada, solo en grafos dirigidos
+	private long aristas;
+	private long lazos;
+	private long repetidas;
+	private long[] bloom;
+	private long[] pesos;
+	private TreeMap<Integer, Long> otrosPesos;
+	private long sumaPesos;
+	private int minPeso;
+	private int maxPeso;
+
+	/**
+	 * Constructor con un filtro de Bloom de 2^23 bits (1 MB)
+	 */
+	public GraphStats() {
+		this(1<<23);
+	}
+
+	/**
+	 * Constructor
+	 * @param bitsBloom tamano del filtro de Bloom para detectar aristas repetidas; con unos 10 bits
+	 * 			por arista la probabilidad de contar una arista como repetida sin serlo es menor al 1%
+	 */
+	public GraphStats(int bitsBloom) {
+		bloom=new long[(int)Math.max(1,((long)bitsBloom+63)/64)];
+		start(false);
+	}
+
+	/**
+	 * Funcion para obtener el tamano del filtro de Bloom para un numero de aristas
+	 * @param aristas numero de aristas esperado, o una cota superior
+	 * @return bits del filtro, BITS_POR_ARISTA por arista hasta un maximo de 2^30
+	 */
+	public static int bloomBitsFor(long aristas) {
+		return (int)Math.min(MAX_BITS,Math.max(64,aristas*BITS_POR_ARISTA));
+	}
+
+	/**
+	 * Funcion para calcular las estadisticas de un archivo .gv sin cargarlo en memoria. El filtro
+	 * de Bloom se dimensiona con la cota de aristas que da el tamano del archivo.
+	 * @param filename nombre del archivo
+	 * @return Instancia tipo GraphStats
+	 * @throws IOException si el archivo no puede leerse
+	 */
+	public static GraphStats fromGraphViz(String filename) throws IOException {
+		return fromGraphViz(filename,bloomBitsFor(new File(filename).length()/BYTES_ARISTA_GV));
+	}
+
+	/**
+	 * Funcion para calcular las estadisticas de un archivo .gv sin cargarlo en memoria
+	 * @param filename nombre del archivo
+	 * @param bitsBloom tamano del filtro de Bloom
+	 * @return Instancia tipo GraphStats
+	 * @throws IOException si el archivo no puede leerse
+	 */
+	public static GraphStats fromGraphViz(String filename,int bitsBloom) throws IOException {
+		GraphStats s=new GraphStats(bitsBloom);
+		GraphVizSink.replay(filename,s);
+		return s;
+	}
+
+	/**
+	 * Funcion para calcular las estadisticas de un archivo escrito por BinaryEdgeSink. El filtro
+	 * de Bloom se dimensiona con la cota de aristas que da el tamano del archivo.
+	 * @param filename nombre del archivo
+	 * @return Instancia tipo GraphStats
+	 * @throws IOException si el archivo no puede leerse
+	 */
+	public static GraphStats fromBinary(String filename) throws IOException {
+		return fromBinary(filename,bloomBitsFor(new File(filename).length()/BYTES_ARISTA_BIN));
+	}
+
+	/**
+	 * Funcion para calcular las estadisticas de un archivo escrito por BinaryEdgeSink
+	 * @param filename nombre del archivo
+	 * @param bitsBloom tamano del filtro de Bloom
+	 * @return Instancia tipo GraphStats
+	 * @throws IOException si el archivo no puede leerse
+	 */
+	public static GraphStats fromBinary(String filename,int bitsBloom) throws IOException {
+		GraphStats s=new GraphStats(bitsBloom);
+		BinaryEdgeSink.replay(filename,s);
+		return s;
+	}
+
+	/**
+	 * Funcion para calcular las estadisticas de un grafo en memoria, con el filtro de Bloom
+	 * dimensionado segun sus aristas
+	 * @param g grafo
+	 * @return Instancia tipo GraphStats
+	 */
+	public static GraphStats of(Graph g) {
+		long m=0;
+		for (int node : g.getNodes()) {
+			m+=g.getNeighbors(node).size();
+		}
+		GraphStats s=new GraphStats(bloomBitsFor(m));
+		s.start(g.isDirigido());
+		for (int node : g.getNodes()) {
+			s.addNode(node);
+		}
+		g.forEachEdge(s::addEdge);
+		s.finish();
+		return s;
+	}
+
+	/**
+	 * Funcion que se llama al iniciar: descarta las estadisticas anteriores
+	 * @param dirigido true si el grafo es dirigido
+	 */
+	@Override
+	public void start(boolean dirigido) {
+		this.dirigido=dirigido;
+		ids=new IdMap();
+		salida=new int[16];
+		entrada= dirigido ? new int[16] : null;
+		aristas=0;
+		lazos=0;
+		repetidas=0;
+		Arrays.fill(bloom,0);
+		pesos=new long[PESOS_DIRECTOS];
+		otrosPesos=new TreeMap<>();
+		sumaPesos=0;
+		minPeso=Integer.MAX_VALUE;
+		maxPeso=Integer.MIN_VALUE;
+	}
+
+	private int nodo(int id) {
+		int i=ids.intern(id);
+		if(i==salida.length) {
+			salida=Arrays.copyOf(salida,i*2);
+			if(entrada!=null) {
+				entrada=Arrays.copyOf(entrada,i*2);
+			}
+		}
+		return i;
+	}
+
+	@Override
+	public void addNode(int id) {
+		nodo(id);
+	}
+
+	@Override
+	public void addEdge(int a,int b,int w) {
+		int i=nodo(a);
+		int j=nodo(b);
+		salida[i]++;
+		if(dirigido) {
+			entrada[j]++;
+		}else {
+			salida[j]++;
+		}
+		aristas++;
+		if(a==b) {
+			lazos++;
+		}
+		if(!dirigido && a>b) {
+			int t=a;
+			a=b;
+			b=t;
+		}
+		if(vista(((long)a<<32) | (b & 0xffffffffL))) {
+			repetidas++;
+		}
+		if(w>=0 && w<PESOS_DIRECTOS) {
+			pesos[w]++;
+		}else {
+			otrosPesos.merge(w,1L,Long::sum);
+		}
+		sumaPesos+=w;
+		minPeso=Math.min(minPeso,w);
+		maxPeso=Math.max(maxPeso,w);
+	}
+
+	/**
+	 * Agrega la llave al filtro de Bloom
+	 * @return true si ya estaba (o es un falso positivo)
+	 */
+	private boolean vista(long llave) {
+		long h=llave*0x9E3779B97F4A7C15L;
+		h^=h>>>31;
+		h*=0xBF58476D1CE4E5B9L;
+		h^=h>>>29;
+		long bits=bloom.length*64L;
+		int h1=(int)h;
+		int h2=(int)(h>>>32) | 1;
+		boolean estaba=true;
+		for(int k=0;k<HASHES;k++) {
+			long pos=((h1+(long)k*h2) & 0x7fffffffffffffffL)%bits;
+			long mascara=1L<<(pos&63);
+			int celda=(int)(pos>>>6);
+			if((bloom[celda] & mascara)==0) {
+				estaba=false;
+				bloom[celda]|=mascara;
+			}
+		}
+		return estaba;
+	}
+
+	@Override
+	public void finish() {
+	}
+
+	public boolean isDirigido() {
+		return dirigido;
+	}
+
+	/**
+	 * Funcion para obtener el numero de nodos
+	 * @return nodos distintos vistos, como nodo o como extremo de una arista
+	 */
+	public int getNodeCount() {
+		return ids.size();
+	}
+
+	/**
+	 * Funcion para obtener el numero de aristas recibidas, incluyendo repetidas y lazos
+	 * @return numero de aristas
+	 */
+	public long getEdgeCount() {
+		return aristas;
+	}
+
+	/**
+	 * Funcion para obtener el numero de lazos (aristas a-a)
+	 * @return numero de lazos
+	 */
+	public long getSelfLoops() {
+		return lazos;
+	}
+
+	/**
+	 * Funcion para obtener el numero estimado de aristas repetidas (en grafos no dirigidos a-b y b-a
+	 * son la misma arista). Es solo una estimacion: puede contar de mas por los falsos positivos
+	 * del filtro de Bloom, y no se usa en ninguna otra estadistica.
+	 * @return aristas que ya se habian visto
+	 */
+	public long getDuplicates() {
+		return repetidas;
+	}
+
+	/**
+	 * Funcion para obtener la probabilidad actual de que el filtro de Bloom tome una arista nueva
+	 * como repetida, calculada con la fraccion de bits encendidos
+	 * @return probabilidad de falso positivo
+	 */
+	public double getDuplicateFalsePositiveRate() {
+		long encendidos=0;
+		for (long x : bloom) {
+			encendidos+=Long.bitCount(x);
+		}
+		return Math.pow((double)encendidos/(bloom.length*64L),HASHES);
+	}
+
+	/**
+	 * Funcion para obtener el grado de un nodo
+	 * @param indice indice interno del nodo (orden en que aparecio)
+	 * @return grado (entrada mas salida en grafos dirigidos; los lazos cuentan dos veces)
+	 */
+	private int grado(int indice) {
+		return dirigido ? salida[indice]+entrada[indice] : salida[indice];
+	}
+
+	/**
+	 * Funcion para obtener el histograma de grados
+	 * @return arreglo donde la posicion d tiene el numero de nodos con grado d
+	 */
+	public long[] getDegreeHistogram() {
+		return histograma(0);
+	}
+
+	/**
+	 * Funcion para obtener el histograma de grados de salida (igual al de grados si el grafo es no dirigido)
+	 * @return arreglo donde la posicion d tiene el numero de nodos con grado de salida d
+	 */
+	public long[] getOutDegreeHistogram() {
+		return histograma(dirigido ? 1 : 0);
+	}
+
+	/**
+	 * Funcion para obtener el histograma de grados de entrada (igual al de grados si el grafo es no dirigido)
+	 * @return arreglo donde la posicion d tiene el numero de nodos con grado de entrada d
+	 */
+	public long[] getInDegreeHistogram() {
+		return histograma(dirigido ? 2 : 0);
+	}
+
+	/**
+	 * @param tipo 0 grado total, 1 salida, 2 entrada
+	 */
+	private long[] histograma(int tipo) {
+		int n=ids.size();
+		int max=0;
+		int[] d=new int[n];
+		for(int i=0;i<n;i++) {
+			d[i]= tipo==0 ? grado(i) : (tipo==1 ? salida[i] : entrada[i]);
+			max=Math.max(max,d[i]);
+		}
+		long[] h=new long[max+1];
+		for (int x : d) {
+			h[x]++;
+		}
+		return h;
+	}
+
+	/**
+	 * Funcion para obtener el grado minimo
+	 * @return grado minimo, o 0 si no hay nodos
+	 */
+	public int getMinDegree() {
+		int n=ids.size();
+		if(n==0) {
+			return 0;
+		}
+		int min=Integer.MAX_VALUE;
+		for(int i=0;i<n;i++) {
+			min=Math.min(min,grado(i));
+		}
+		return min;
+	}
+
+	/**
+	 * Funcion para obtener el grado maximo
+	 * @return grado maximo, o 0 si no hay nodos
+	 */
+	public int getMaxDegree() {
+		int max=0;
+		for(int i=0;i<ids.size();i++) {
+			max=Math.max(max,grado(i));
+		}
+		return max;
+	}
+
+	/**
+	 * Funcion para obtener el grado promedio (entrada mas salida en grafos dirigidos)
+	 * @return grado promedio, o 0 si no hay nodos
+	 */
+	public double getMeanDegree() {
+		int n=ids.size();
+		return n==0 ? 0 : 2.0*aristas/n;
+	}
+
+	/**
+	 * Funcion para obtener la densidad: aristas recibidas (sin lazos) entre el numero de pares de nodos
+	 * posibles. Se calcula con el conteo exacto de aristas, no con la estimacion de repetidas.
+	 * @return densidad, entre 0 y 1 si no hay aristas repetidas
+	 */
+	public double getDensity() {
+		double n=ids.size();
+		if(n<2) {
+			return 0;
+		}
+		double pares= dirigido ? n*(n-1) : n*(n-1)/2;
+		return (aristas-lazos)/pares;
+	}
+
+	/**
+	 * Funcion para estimar el exponente alfa de una distribucion de grados P(d) ~ d^-alfa con
+	 * el estimador de maxima verosimilitud discreto aproximado de Clauset, Shalizi y Newman,
+	 * usando los nodos con grado al menos dmin. En un grafo de Barabasi-Albert se espera alfa cercano a 3.
+	 * @param dmin grado minimo de la cola (al menos 1)
+	 * @return exponente estimado, o NaN si ningun nodo tiene grado dmin o mayor
+	 */
+	public double getPowerLawExponent(int dmin) {
+		dmin=Math.max(1,dmin);
+		double suma=0;
+		long cuantos=0;
+		for(int i=0;i<ids.size();i++) {
+			int d=grado(i);
+			if(d>=dmin) {
+				suma+=Math.log(d/(dmin-0.5));
+				cuantos++;
+			}
+		}
+		return cuantos==0 ? Double.NaN : 1+cuantos/suma;
+	}
+
+	/**
+	 * Funcion para obtener el histograma de pesos
+	 * @return mapa ordenado peso -&gt; numero de aristas
+	 */
+	public TreeMap<Integer, Long> getWeightHistogram() {
+		TreeMap<Integer, Long> res=new TreeMap<>(otrosPesos);
+		for(int w=0;w<PESOS_DIRECTOS;w++) {
+			if(pesos[w]>0) {
+				res.put(w,pesos[w]);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el peso minimo
+	 * @return peso minimo, o 0 si no hay aristas
+	 */
+	public int getMinWeight() {
+		return aristas==0 ? 0 : minPeso;
+	}
+
+	/**
+	 * Funcion para obtener el peso maximo
+	 * @return peso maximo, o 0 si no hay aristas
+	 */
+	public int getMaxWeight() {
+		return aristas==0 ? 0 : maxPeso;
+	}
+
+	/**
+	 * Funcion para obtener el peso promedio
+	 * @return peso promedio, o 0 si no hay aristas
+	 */
+	public double getMeanWeight() {
+		return aristas==0 ? 0 : (double)sumaPesos/aristas;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb=new StringBuilder();
+		sb.append(dirigido ? "Grafo dirigido\n" : "Grafo no dirigido\n");
+		sb.append("Nodos: ").append(getNodeCount()).append('\n');
+		sb.append("Aristas: ").append(aristas).append(" (lazos: ").append(lazos)
+				.append(", repetidas aprox.: ").append(repetidas)
+				.append(String.format(", falsos positivos %.4f)%n",getDuplicateFalsePositiveRate()));
+		sb.append(String.format("Grado: min %d, max %d, promedio %.4f%n",getMinDegree(),getMaxDegree(),getMeanDegree()));
+		sb.append(String.format("Densidad: %.6f%n",getDensity()));
+		sb.append(String.format("Peso: min %d, max %d, promedio %.4f%n",getMinWeight(),getMaxWeight(),getMeanWeight()));
+		sb.append("Histograma de grados:\n");
+		long[] h=getDegreeHistogram();
+		for(int d=0;d<h.length;d++) {
+			if(h[d]>0) {
+				sb.append("  ").append(d).append('\t').append(h[d]).append('\n');
+			}
+		}
+		sb.append("Histograma de pesos:\n");
+		for (Map.Entry<Integer, Long> e : getWeightHistogram().entrySet()) {
+			sb.append("  ").append(e.getKey()).append('\t').append(e.getValue()).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,146 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * EdgeSink que escribe el grafo en formato GraphViz conforme recibe los nodos y aristas,
+ * sin guardarlos en memoria. El archivo resultante puede cargarse con Graph.loadFile.
+ */
+public class GraphVizSink implements EdgeSink {
+
+	private Writer out;
+	private String filename;
+	private String arista;
+
+	/**
+	 * Constructor que escribe en un archivo
+	 * @param filename nombre del archivo (incluye la extension)
+	 */
+	public GraphVizSink(String filename) {
+		this.filename=filename;
+	}
+
+	/**
+	 * Constructor que escribe en un Writer ya abierto. El Writer no se cierra al terminar.
+	 * @param out destino del texto
+	 */
+	public GraphVizSink(Writer out) {
+		this.out=out;
+	}
+
+	@Override
+	public void start(boolean dirigido) {
+		try {
+			if(filename!=null) {
+				out=new BufferedWriter(new FileWriter(filename));
+			}
+			out.write(dirigido ? "digraph {\n" : "graph {\n");
+			arista=dirigido ? " -> " : " -- ";
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void addNode(int id) {
+		try {
+			out.write("  "+id+" [label=\""+id+"\"];\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void addEdge(int a,int b,int w) {
+		try {
+			out.write("  "+a+arista+b+" [label=\""+w+"\"];\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void finish() {
+		try {
+			out.write("}");
+			if(filename!=null) {
+				out.close();
+				System.out.println("Grafo guardado correctamente como "+filename);
+			}else {
+				out.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Cierra y borra el archivo incompleto. Si se escribia en un Writer, solo se vacia el buffer.
+	 */
+	@Override
+	public void cancel() {
+		try {
+			if(filename!=null) {
+				out.close();
+				new File(filename).delete();
+			}else {
+				out.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Funcion para leer un archivo .gv linea por linea y enviar sus nodos y aristas a un EdgeSink,
+	 * sin cargar el grafo en memoria. Acepta el mismo formato que Graph.loadFile; las etiquetas
+	 * de los nodos se ignoran y la etiqueta de cada arista se toma como su peso.
+	 * @param filename nombre del archivo .gv
+	 * @param sink destino de los nodos y aristas
+	 * @throws IOException si el archivo no puede leerse o una linea no tiene el formato esperado
+	 */
+	public static void replay(String filename,EdgeSink sink) throws IOException {
+		try (BufferedReader br=new BufferedReader(new FileReader(filename),1<<16)) {
+			String line=br.readLine();
+			if(line==null) {
+				throw new IOException("El archivo esta vacio: "+filename);
+			}
+			boolean dirigido=line.contains("digraph");
+			String arista=dirigido ? "->" : "--";
+			sink.start(dirigido);
+			int numero=1;
+			while((line=br.readLine())!=null) {
+				numero++;
+				int fin=line.indexOf(';');
+				if(fin<0) {
+					continue;
+				}
+				try {
+					int etiqueta=line.indexOf('[');
+					String nodos=line.substring(0,etiqueta<0 ? fin : etiqueta).trim();
+					int p=nodos.indexOf(arista);
+					if(p<0) {
+						sink.addNode(Integer.parseInt(nodos));
+					}else {
+						int a=Integer.parseInt(nodos.substring(0,p).trim());
+						int b=Integer.parseInt(nodos.substring(p+2).trim());
+						int w=Edge.randomW();
+						if(etiqueta>=0) {
+							int i=line.indexOf('"',etiqueta);
+							w=Integer.parseInt(line.substring(i+1,line.indexOf('"',i+1)).trim());
+						}
+						sink.addEdge(a,b,w);
+					}
+				} catch (RuntimeException e) {
+					throw new IOException("Linea "+numero+" de "+filename+" no tiene el formato esperado: "+line,e);
+				}
+			}
+			sink.finish();
+		}
+	}
+}
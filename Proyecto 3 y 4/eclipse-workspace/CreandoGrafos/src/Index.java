@@ -1,7 +1,33 @@
 
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public class Index {
 	
+	/**
+	 * Guarda el grafo con GraphIO, en otro hilo, mientras se calcula el siguiente.
+	 * El mensaje de exito o de error se imprime cuando termina la escritura.
+	 */
+	private static CompletableFuture<Void> guardar(GraphIO io,Graph g,String filename) {
+		return io.saveAsync(g,filename).handle((ruta,e) -> {
+			if(e==null) {
+				System.out.println("Grafo guardado correctamente como "+filename);
+			}else {
+				System.err.println(e.getMessage()+(e.getCause()!=null ? ": "+e.getCause() : ""));
+			}
+			return null;
+		});
+	}
+	
+	/**
+	 * Espera a que terminen las escrituras pendientes
+	 */
+	private static void esperar(List<CompletableFuture<Void>> pendientes) {
+		CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0])).join();
+	}
+	
 	public static void parte_uno() {
 		
 		String path="gv/";
@@ -62,19 +88,23 @@ public class Index {
 				};
 		Integer[] nodes_number= new Integer[] {30,100,500};
 		
-		for (String tipo : files) {
-			for (Integer number : nodes_number) {
-				String filename=tipo+"_"+number+".gv";
-				a = Graph.loadFile(path+filename);
-				b=a.getDFSr(raiz);
-				c=a.getDFSi(raiz);
-				d=a.getBFS(raiz);
-				
-				b.saveFile(path+"arbol_DFSr_"+filename);
-				c.saveFile(path+"arbol_DFSi_"+filename);
-				d.saveFile(path+"arbol_BFS_"+filename);
-				
+		List<CompletableFuture<Void>> pendientes=new ArrayList<>();
+		try (GraphIO io=new GraphIO()) {
+			for (String tipo : files) {
+				for (Integer number : nodes_number) {
+					String filename=tipo+"_"+number+".gv";
+					a = Graph.loadFile(path+filename);
+					b=a.getDFSr(raiz);
+					c=a.getDFSi(raiz);
+					d=a.getBFS(raiz);
+					
+					pendientes.add(guardar(io,b,path+"arbol_DFSr_"+filename));
+					pendientes.add(guardar(io,c,path+"arbol_DFSi_"+filename));
+					pendientes.add(guardar(io,d,path+"arbol_BFS_"+filename));
+					
+				}
 			}
+			esperar(pendientes);
 		}
 		
 	}
@@ -154,14 +184,18 @@ public class Index {
 		Integer[] nodes_number= new Integer[] {30,100,500};
 		
 		
-		for (String tipo : files) {
-			for (Integer number : nodes_number) {
-				String filename=start+tipo+"_"+number+".gv";
-				a = Graph.loadFile(path+filename);
-				b=a.getDijkstra(raiz);
-				b.saveFile(path+"D_"+raiz+"_"+filename.replace(start,""));
-				
+		List<CompletableFuture<Void>> pendientes=new ArrayList<>();
+		try (GraphIO io=new GraphIO()) {
+			for (String tipo : files) {
+				for (Integer number : nodes_number) {
+					String filename=start+tipo+"_"+number+".gv";
+					a = Graph.loadFile(path+filename);
+					b=a.getDijkstra(raiz);
+					pendientes.add(guardar(io,b,path+"D_"+raiz+"_"+filename.replace(start,"")));
+					
+				}
 			}
+			esperar(pendientes);
 		}
 	}
 
@@ -185,15 +219,19 @@ public class Index {
 				500};
 		
 		
-		for (String tipo : files) {
-			for (Integer number : nodes_number) {
-				String filename=start+tipo+"_"+number+".gv";
-				a = Graph.loadFile(path+filename);
-				b=a.getKruskal(raiz);
-				filename=path+"K_"+raiz+"_"+filename.replace(start,"");
-				System.out.println("Peso del arbol "+filename+" = "+b.getGraphWeight());
-				b.saveFile(filename);
+		List<CompletableFuture<Void>> pendientes=new ArrayList<>();
+		try (GraphIO io=new GraphIO()) {
+			for (String tipo : files) {
+				for (Integer number : nodes_number) {
+					String filename=start+tipo+"_"+number+".gv";
+					a = Graph.loadFile(path+filename);
+					b=a.getKruskal(raiz);
+					filename=path+"K_"+raiz+"_"+filename.replace(start,"");
+					System.out.println("Peso del arbol "+filename+" = "+b.getGraphWeight());
+					pendientes.add(guardar(io,b,filename));
+				}
 			}
+			esperar(pendientes);
 		}
 	}
 	
@@ -216,16 +254,20 @@ public class Index {
 				500};
 		
 		
-		for (String tipo : files) {
-			for (Integer number : nodes_number) {
-				String filename=start+tipo+"_"+number+".gv";
-				a = Graph.loadFile(path+filename);
-				b=a.getKruskal_i(raiz);
-				filename=path+"Ki_"+raiz+"_"+filename.replace(start,"");
-				System.out.println("Peso del arbol "+filename+" = "+b.getGraphWeight());
-				b.saveFile(filename);
-				
+		List<CompletableFuture<Void>> pendientes=new ArrayList<>();
+		try (GraphIO io=new GraphIO()) {
+			for (String tipo : files) {
+				for (Integer number : nodes_number) {
+					String filename=start+tipo+"_"+number+".gv";
+					a = Graph.loadFile(path+filename);
+					b=a.getKruskal_i(raiz);
+					filename=path+"Ki_"+raiz+"_"+filename.replace(start,"");
+					System.out.println("Peso del arbol "+filename+" = "+b.getGraphWeight());
+					pendientes.add(guardar(io,b,filename));
+					
+				}
 			}
+			esperar(pendientes);
 		}
 	}
 	
@@ -248,25 +290,66 @@ public class Index {
 				500};
 		
 		
+		List<CompletableFuture<Void>> pendientes=new ArrayList<>();
+		try (GraphIO io=new GraphIO()) {
+			for (String tipo : files) {
+				for (Integer number : nodes_number) {
+					String filename=start+tipo+"_"+number+".gv";
+					a = Graph.loadFile(path+filename);
+					b=a.getPrim(raiz);
+					filename=path+"P_"+raiz+"_"+filename.replace(start,"");
+					System.out.println("Peso del arbol "+filename+" = "+b.getGraphWeight());
+					pendientes.add(guardar(io,b,filename));
+					
+				}
+			}
+			esperar(pendientes);
+		}
+	}
+	
+	/**
+	 * Ejecuta los mismos experimentos que parte_tres_dijkstra, parte_cuatro_kruskal,
+	 * parte_cuatro_kruskal_invertido y parte_cuatro_prim, pero cargando cada grafo una sola vez
+	 * y ejecutando los algoritmos en paralelo con BatchRunner.
+	 */
+	public static void parte_tres_cuatro_lote() {
+		String path="gv/";
+		String start="w_";
+		
+		int raiz=0;
+		
+		String[] files = new String[]{
+				"erdosRenyi",
+				"gilbert",
+				"geografico",
+				"barabasi"
+				};
+		Integer[] nodes_number= new Integer[] {
+				30,
+				100,
+				500};
+		
+		BatchRunner lote = new BatchRunner(path);
 		for (String tipo : files) {
 			for (Integer number : nodes_number) {
 				String filename=start+tipo+"_"+number+".gv";
-				a = Graph.loadFile(path+filename);
-				b=a.getKruskal_i(raiz);
-				filename=path+"P_"+raiz+"_"+filename.replace(start,"");
-				System.out.println("Peso del arbol "+filename+" = "+b.getGraphWeight());
-				b.saveFile(filename);
-				
+				lote.addInput(filename,filename.replace(start,""));
 			}
 		}
+		lote.addStage("Dijkstra",null,g -> g.getDijkstra(raiz),"D_"+raiz+"_");
+		lote.addStage("Kruskal",null,g -> g.getKruskal(raiz),"K_"+raiz+"_",true);
+		lote.addStage("Kruskal_i",null,g -> g.getKruskal_i(raiz),"Ki_"+raiz+"_",true);
+		lote.addStage("Prim",null,g -> g.getPrim(raiz),"P_"+raiz+"_",true);
+		lote.run();
 	}
 	
 	public static void main(String[] args) {
 		//parte_tres(); 
-		parte_tres_dijkstra();
-		parte_cuatro_kruskal();
-		parte_cuatro_kruskal_invertido();
-		parte_cuatro_prim();
+		//parte_tres_dijkstra();
+		//parte_cuatro_kruskal();
+		//parte_cuatro_kruskal_invertido();
+		//parte_cuatro_prim();
+		parte_tres_cuatro_lote();
 	}
 
 }
@@ -0,0 +1,15 @@
+/**
+ * Operacion que recibe tres enteros y no regresa nada. Se usa para recorrer
+ * las aristas de un grafo como (nodo a, nodo b, peso) sin crear objetos.
+ */
+@FunctionalInterface
+public interface IntIntIntConsumer {
+
+	/**
+	 * Funcion que procesa una arista
+	 * @param a nodo origen
+	 * @param b nodo destino
+	 * @param w peso de la arista
+	 */
+	void accept(int a,int b,int w);
+}
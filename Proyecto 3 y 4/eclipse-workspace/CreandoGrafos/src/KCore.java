@@ -0,0 +1,299 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Descomposicion en k-nucleos (k-cores) sobre un CSRGraph. El k-nucleo es el subgrafo maximo en
+ * el que todos los nodos tienen al menos k vecinos; el numero de nucleo de un nodo es el mayor k
+ * cuyo k-nucleo lo contiene. Se calcula con el algoritmo de cubetas de Batagelj y Zaversnik en
+ * O(V+E), o con un pelado por niveles en paralelo para grafos grandes. Sirve, por ejemplo, para
+ * podar un grafo (kCore) antes de ejecutar algoritmos costosos.
+ * Las direcciones y los lazos se ignoran al calcular los grados.
+ */
+public class KCore {
+
+	private static final int BLOQUE=4096; //nodos por tarea en el pelado paralelo
+
+	private final CSRGraph original;
+	private final int n;
+	private final int[] off; //vecinos sin lazos del grafo no dirigido
+	private final int[] tg;
+
+	/**
+	 * Constructor que copia el grafo a formato CSR
+	 * @param g grafo
+	 */
+	public KCore(AdjacencySource g) {
+		this(g instanceof CSRGraph ? (CSRGraph)g : CSRGraph.from(g));
+	}
+
+	/**
+	 * Constructor
+	 * @param g grafo en formato CSR
+	 */
+	public KCore(CSRGraph g) {
+		original=g;
+		n=g.getSize();
+		CSRGraph s=g;
+		if(g.isDirigido()) {
+			int[] ids=g.getIds();
+			int[] o=g.getOffsets();
+			int[] t=g.getTargets();
+			GraphBuilder b=new GraphBuilder(false,t.length);
+			for(int i=0;i<n;i++) {
+				b.addNode(ids[i]);
+				for(int j=o[i];j<o[i+1];j++) {
+					b.addEdge(ids[i],ids[t[j]],1);
+				}
+			}
+			s=b.build(); //mismos ids, por lo tanto mismos indices
+		}
+		int[] o=s.getOffsets();
+		int[] t=s.getTargets();
+		off=new int[n+1];
+		int[] sin=new int[t.length];
+		int k=0;
+		for(int i=0;i<n;i++) {
+			for(int j=o[i];j<o[i+1];j++) {
+				if(t[j]!=i) {
+					sin[k++]=t[j];
+				}
+			}
+			off[i+1]=k;
+		}
+		tg= k==t.length ? sin : Arrays.copyOf(sin,k);
+	}
+
+	/**
+	 * Funcion para calcular el numero de nucleo de cada nodo con el algoritmo de Batagelj y Zaversnik:
+	 * los nodos se ordenan por grado en cubetas y se retiran de menor a mayor grado; al retirar un nodo,
+	 * cada vecino con grado mayor baja una cubeta, intercambiandolo con el primero de su cubeta.
+	 * @return numero de nucleo de cada nodo por indice interno
+	 */
+	public int[] coreness() {
+		long inicio=Metrics.start();
+		int[] grado=new int[n];
+		int max=0;
+		for(int v=0;v<n;v++) {
+			grado[v]=off[v+1]-off[v];
+			max=Math.max(max,grado[v]);
+		}
+		//bin[d]: posicion en vert del primer nodo con grado d
+		int[] bin=new int[max+1];
+		for(int v=0;v<n;v++) {
+			bin[grado[v]]++;
+		}
+		int inicioCubeta=0;
+		for(int d=0;d<=max;d++) {
+			int c=bin[d];
+			bin[d]=inicioCubeta;
+			inicioCubeta+=c;
+		}
+		int[] vert=new int[n];
+		int[] pos=new int[n];
+		for(int v=0;v<n;v++) {
+			pos[v]=bin[grado[v]]++;
+			vert[pos[v]]=v;
+		}
+		for(int d=max;d>0;d--) {
+			bin[d]=bin[d-1];
+		}
+		bin[0]=0;
+		for(int i=0;i<n;i++) {
+			int v=vert[i];
+			for(int k=off[v];k<off[v+1];k++) {
+				int u=tg[k];
+				if(grado[u]>grado[v]) {
+					int du=grado[u];
+					int pu=pos[u];
+					int pw=bin[du];
+					int w=vert[pw];
+					if(u!=w) {
+						pos[u]=pw;
+						vert[pu]=w;
+						pos[w]=pu;
+						vert[pw]=u;
+					}
+					bin[du]++;
+					grado[u]--;
+				}
+			}
+		}
+		Metrics.count("KCore","aristas_revisadas",tg.length);
+		Metrics.time("KCore",inicio);
+		return grado;
+	}
+
+	/**
+	 * Funcion para calcular el numero de nucleo de cada nodo con un pelado por niveles en paralelo.
+	 * Para k=0,1,2,... se retiran a la vez todos los nodos restantes con grado k; al retirarlos se
+	 * reduce con compareAndSet el grado de sus vecinos con grado mayor a k, y los que llegan a k se
+	 * retiran en la siguiente ronda del mismo nivel. Cada ronda reparte los nodos entre los hilos.
+	 * @return numero de nucleo de cada nodo por indice interno (igual que coreness)
+	 */
+	public int[] parallelCoreness() {
+		long inicio=Metrics.start();
+		AtomicIntegerArray grado=new AtomicIntegerArray(n);
+		int[] nucleo=new int[n];
+		for(int v=0;v<n;v++) {
+			grado.set(v,off[v+1]-off[v]);
+			nucleo[v]=-1;
+		}
+		int[] restantes=new int[n];
+		for(int v=0;v<n;v++) {
+			restantes[v]=v;
+		}
+		long rondas=0;
+		int k=0;
+		while(restantes.length>0) {
+			final int nivel=k;
+			final int[] r=restantes;
+			//nodos restantes con grado igual al nivel (ninguno tiene menos)
+			int[] frente=juntar(IntStream.range(0,bloques(r.length)).parallel().mapToObj(b -> {
+				int[] f=new int[16];
+				int c=0;
+				for(int i=b*BLOQUE;i<Math.min(r.length,(b+1)*BLOQUE);i++) {
+					int v=r[i];
+					if(grado.get(v)<=nivel) {
+						if(c==f.length) {
+							f=Arrays.copyOf(f,c*2);
+						}
+						f[c++]=v;
+					}
+				}
+				return Arrays.copyOf(f,c);
+			}).toArray(int[][]::new));
+			while(frente.length>0) {
+				rondas++;
+				final int[] fr=frente;
+				for (int v : fr) {
+					nucleo[v]=nivel;
+				}
+				frente=juntar(IntStream.range(0,bloques(fr.length)).parallel().mapToObj(b -> {
+					int[] f=new int[16];
+					int c=0;
+					for(int i=b*BLOQUE;i<Math.min(fr.length,(b+1)*BLOQUE);i++) {
+						int v=fr[i];
+						for(int j=off[v];j<off[v+1];j++) {
+							int u=tg[j];
+							while(true) {
+								int d=grado.get(u);
+								if(d<=nivel) {
+									break;
+								}
+								if(grado.compareAndSet(u,d,d-1)) {
+									if(d-1==nivel) { //solo un hilo ve la transicion a nivel
+										if(c==f.length) {
+											f=Arrays.copyOf(f,c*2);
+										}
+										f[c++]=u;
+									}
+									break;
+								}
+							}
+						}
+					}
+					return Arrays.copyOf(f,c);
+				}).toArray(int[][]::new));
+			}
+			//se descartan los nodos retirados y el siguiente nivel es el menor grado restante
+			int[] quedan=new int[r.length];
+			int c=0;
+			int minimo=Integer.MAX_VALUE;
+			for (int v : r) {
+				if(nucleo[v]<0) {
+					quedan[c++]=v;
+					minimo=Math.min(minimo,grado.get(v));
+				}
+			}
+			restantes=Arrays.copyOf(quedan,c);
+			k= c==0 ? k : Math.max(k+1,minimo);
+		}
+		Metrics.count("KCoreParalelo","rondas",rondas);
+		Metrics.count("KCoreParalelo","aristas_revisadas",tg.length);
+		Metrics.time("KCoreParalelo",inicio);
+		return nucleo;
+	}
+
+	private static int bloques(int tam) {
+		return (tam+BLOQUE-1)/BLOQUE;
+	}
+
+	private static int[] juntar(int[][] partes) {
+		int total=0;
+		for (int[] p : partes) {
+			total+=p.length;
+		}
+		int[] res=new int[total];
+		int i=0;
+		for (int[] p : partes) {
+			System.arraycopy(p,0,res,i,p.length);
+			i+=p.length;
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el k-nucleo como un grafo: los nodos con numero de nucleo al menos k
+	 * y las aristas entre ellos, con sus pesos y direcciones originales.
+	 * @param k nucleo minimo
+	 * @param nucleo resultado de coreness o parallelCoreness
+	 * @return Instancia tipo Graph con el subgrafo inducido
+	 */
+	public Graph kCore(int k,int[] nucleo) {
+		int[] ids=original.getIds();
+		int[] o=original.getOffsets();
+		int[] t=original.getTargets();
+		int[] w=original.getWeights();
+		boolean dirigido=original.isDirigido();
+		GraphBuilder b=new GraphBuilder(dirigido);
+		for(int v=0;v<n;v++) {
+			if(nucleo[v]<k) {
+				continue;
+			}
+			b.addNode(ids[v]);
+			for(int j=o[v];j<o[v+1];j++) {
+				int u=t[j];
+				if(nucleo[u]>=k && (dirigido || v<=u)) {
+					b.addEdge(ids[v],ids[u],w[j]);
+				}
+			}
+		}
+		return b.toGraph();
+	}
+
+	/**
+	 * Funcion para obtener el mayor numero de nucleo (degeneracion del grafo)
+	 * @param nucleo resultado de coreness o parallelCoreness
+	 * @return numero de nucleo maximo, o 0 si no hay nodos
+	 */
+	public static int getMaxCore(int[] nucleo) {
+		int max=0;
+		for (int c : nucleo) {
+			max=Math.max(max,c);
+		}
+		return max;
+	}
+
+	/**
+	 * Funcion para traducir un resultado a los identificadores de los nodos
+	 * @param nucleo numero de nucleo de cada indice interno
+	 * @return mapa identificador -&gt; numero de nucleo
+	 */
+	public HashMap<Integer, Integer> toMap(int[] nucleo) {
+		HashMap<Integer, Integer> res=new HashMap<>();
+		for(int i=0;i<n;i++) {
+			res.put(original.getId(i),nucleo[i]);
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el grafo sobre el que se calcula
+	 * @return Instancia tipo CSRGraph
+	 */
+	public CSRGraph getGraph() {
+		return original;
+	}
+}
@@ -0,0 +1,220 @@
+import java.util.Arrays;
+
+/**
+ * Arbol link-cut (Sleator y Tarjan) sobre nodos numerados 0..n-1.
+ * Cada nodo tiene un valor y el arbol puede responder, en tiempo logaritmico
+ * amortizado, cual es el nodo de valor maximo en el camino entre dos nodos.
+ * Para consultar el peso maximo de las aristas de un camino se representa
+ * cada arista como un nodo intermedio con el peso como valor.
+ */
+public class LinkCutTree {
+
+	private int[] left,right,parent,max;
+	private boolean[] rev;
+	private long[] val;
+	private int size;
+	private int[] pila = new int[16];
+
+	/**
+	 * Constructor con capacidad inicial
+	 * @param capacidad numero de nodos esperado, el arbol crece si se rebasa
+	 */
+	public LinkCutTree(int capacidad) {
+		capacidad=Math.max(capacidad,16);
+		left=new int[capacidad];
+		right=new int[capacidad];
+		parent=new int[capacidad];
+		max=new int[capacidad];
+		rev=new boolean[capacidad];
+		val=new long[capacidad];
+	}
+
+	/**
+	 * Funcion para agregar un nodo aislado
+	 * @param valor valor del nodo
+	 * @return indice del nuevo nodo
+	 */
+	public int addNode(long valor) {
+		if(size==val.length) {
+			int c=size*2;
+			left=Arrays.copyOf(left,c);
+			right=Arrays.copyOf(right,c);
+			parent=Arrays.copyOf(parent,c);
+			max=Arrays.copyOf(max,c);
+			rev=Arrays.copyOf(rev,c);
+			val=Arrays.copyOf(val,c);
+		}
+		reset(size,valor);
+		return size++;
+	}
+
+	/**
+	 * Funcion para reutilizar un nodo que ya no esta enlazado con ningun otro
+	 * @param x indice del nodo
+	 * @param valor nuevo valor del nodo
+	 */
+	public void reset(int x,long valor) {
+		left[x]=-1;
+		right[x]=-1;
+		parent[x]=-1;
+		max[x]=x;
+		rev[x]=false;
+		val[x]=valor;
+	}
+
+	/**
+	 * Funcion para obtener el valor de un nodo
+	 * @param x indice del nodo
+	 * @return valor del nodo
+	 */
+	public long getValue(int x) {
+		return val[x];
+	}
+
+	private boolean isRoot(int x) {
+		int p=parent[x];
+		return p==-1 || (left[p]!=x && right[p]!=x);
+	}
+
+	private void push(int x) {
+		if(rev[x]) {
+			int t=left[x];
+			left[x]=right[x];
+			right[x]=t;
+			if(left[x]!=-1) rev[left[x]]^=true;
+			if(right[x]!=-1) rev[right[x]]^=true;
+			rev[x]=false;
+		}
+	}
+
+	private void pull(int x) {
+		int m=x;
+		if(left[x]!=-1 && val[max[left[x]]]>val[m]) m=max[left[x]];
+		if(right[x]!=-1 && val[max[right[x]]]>val[m]) m=max[right[x]];
+		max[x]=m;
+	}
+
+	private void rotate(int x) {
+		int p=parent[x];
+		int g=parent[p];
+		if(!isRoot(p)) {
+			if(left[g]==p) left[g]=x;
+			else right[g]=x;
+		}
+		parent[x]=g;
+		if(left[p]==x) {
+			left[p]=right[x];
+			if(right[x]!=-1) parent[right[x]]=p;
+			right[x]=p;
+		}else {
+			right[p]=left[x];
+			if(left[x]!=-1) parent[left[x]]=p;
+			left[x]=p;
+		}
+		parent[p]=x;
+		pull(p);
+		pull(x);
+	}
+
+	private void splay(int x) {
+		//primero se propagan las inversiones pendientes desde la raiz del splay
+		int n=0;
+		int y=x;
+		while(true) {
+			if(n==pila.length) pila=Arrays.copyOf(pila,n*2);
+			pila[n++]=y;
+			if(isRoot(y)) break;
+			y=parent[y];
+		}
+		while(n>0) {
+			push(pila[--n]);
+		}
+		while(!isRoot(x)) {
+			int p=parent[x];
+			if(!isRoot(p)) {
+				int g=parent[p];
+				if((left[g]==p)==(left[p]==x)) rotate(p);
+				else rotate(x);
+			}
+			rotate(x);
+		}
+	}
+
+	private void access(int x) {
+		int last=-1;
+		for(int y=x;y!=-1;y=parent[y]) {
+			splay(y);
+			right[y]=last;
+			pull(y);
+			last=y;
+		}
+		splay(x);
+	}
+
+	private void makeRoot(int x) {
+		access(x);
+		rev[x]^=true;
+		push(x);
+	}
+
+	private int findRoot(int x) {
+		access(x);
+		while(true) {
+			push(x);
+			if(left[x]==-1) break;
+			x=left[x];
+		}
+		splay(x);
+		return x;
+	}
+
+	/**
+	 * Funcion para comprobar si dos nodos estan en el mismo arbol
+	 * @param a indice del nodo a
+	 * @param b indice del nodo b
+	 * @return true si estan conectados
+	 */
+	public boolean connected(int a,int b) {
+		if(a==b) return true;
+		return findRoot(a)==findRoot(b);
+	}
+
+	/**
+	 * Funcion para enlazar dos nodos de arboles distintos
+	 * @param a indice del nodo a
+	 * @param b indice del nodo b
+	 */
+	public void link(int a,int b) {
+		makeRoot(a);
+		parent[a]=b;
+	}
+
+	/**
+	 * Funcion para cortar el enlace directo entre dos nodos
+	 * @param a indice del nodo a
+	 * @param b indice del nodo b
+	 */
+	public void cut(int a,int b) {
+		makeRoot(a);
+		access(b);
+		//despues de access(b), a es el hijo izquierdo de b
+		push(a);
+		if(left[b]==a && right[a]==-1) {
+			left[b]=-1;
+			parent[a]=-1;
+			pull(b);
+		}
+	}
+
+	/**
+	 * Funcion para obtener el nodo de mayor valor en el camino entre dos nodos conectados
+	 * @param a indice del nodo a
+	 * @param b indice del nodo b
+	 * @return indice del nodo con el valor maximo
+	 */
+	public int pathMax(int a,int b) {
+		makeRoot(a);
+		access(b);
+		return max[b];
+	}
+}
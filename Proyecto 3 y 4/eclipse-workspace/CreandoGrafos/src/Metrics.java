@@ -0,0 +1,122 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro global de contadores de los algoritmos y generadores (nodos visitados,
+ * aristas revisadas, relajaciones, operaciones de la cola y de union-find, rechazos
+ * de los generadores, numero de llamadas y tiempo).
+ * Esta desactivado por defecto: los algoritmos llevan sus contadores en variables locales
+ * y solo los agregan al registro, una vez por llamada, si esta activado.
+ * Los nombres de las metricas tienen la forma algoritmo.contador, por ejemplo Dijkstra.relajaciones.
+ */
+public class Metrics {
+
+	private static volatile boolean enabled=false;
+	private static final ConcurrentHashMap<String, LongAdder> registro = new ConcurrentHashMap<>();
+
+	/**
+	 * Funcion para activar o desactivar el registro de metricas
+	 * @param enabled true para activarlo
+	 */
+	public static void setEnabled(boolean enabled) {
+		Metrics.enabled=enabled;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Funcion para marcar el inicio de una llamada
+	 * @return el tiempo actual en nanosegundos, o 0 si el registro esta desactivado
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Funcion para sumar un valor a un contador
+	 * @param algoritmo nombre del algoritmo
+	 * @param contador nombre del contador
+	 * @param valor cantidad a sumar
+	 */
+	public static void count(String algoritmo,String contador,long valor) {
+		if(enabled) {
+			registro.computeIfAbsent(algoritmo+"."+contador,k -> new LongAdder()).add(valor);
+		}
+	}
+
+	/**
+	 * Funcion para registrar el fin de una llamada: suma uno a algoritmo.llamadas
+	 * y el tiempo transcurrido a algoritmo.tiempo_ns
+	 * @param algoritmo nombre del algoritmo
+	 * @param inicio valor regresado por start al iniciar la llamada
+	 */
+	public static void time(String algoritmo,long inicio) {
+		if(enabled) {
+			count(algoritmo,"llamadas",1);
+			if(inicio!=0) {
+				count(algoritmo,"tiempo_ns",System.nanoTime()-inicio);
+			}
+		}
+	}
+
+	/**
+	 * Funcion para obtener una copia de los valores actuales
+	 * @return mapa ordenado por nombre de la metrica
+	 */
+	public static Map<String, Long> snapshot() {
+		TreeMap<String, Long> res=new TreeMap<>();
+		for (Map.Entry<String, LongAdder> e : registro.entrySet()) {
+			res.put(e.getKey(),e.getValue().sum());
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el valor de una metrica
+	 * @param nombre nombre completo, por ejemplo Dijkstra.relajaciones
+	 * @return valor, o 0 si no se ha registrado
+	 */
+	public static long get(String nombre) {
+		LongAdder v=registro.get(nombre);
+		return v==null ? 0 : v.sum();
+	}
+
+	/**
+	 * Funcion para borrar todas las metricas
+	 */
+	public static void reset() {
+		registro.clear();
+	}
+
+	/**
+	 * Funcion para exportar las metricas como un objeto JSON
+	 * @return texto JSON con una propiedad por metrica
+	 */
+	public static String toJSON() {
+		StringBuilder sb=new StringBuilder("{");
+		for (Map.Entry<String, Long> e : snapshot().entrySet()) {
+			if(sb.length()>1) {
+				sb.append(",");
+			}
+			sb.append("\n  \"").append(e.getKey()).append("\": ").append(e.getValue());
+		}
+		return sb.append("\n}\n").toString();
+	}
+
+	/**
+	 * Funcion para exportar las metricas en formato CSV
+	 * @return texto con las columnas algoritmo, contador y valor
+	 */
+	public static String toCSV() {
+		StringBuilder sb=new StringBuilder("algoritmo,contador,valor\n");
+		for (Map.Entry<String, Long> e : snapshot().entrySet()) {
+			int p=e.getKey().lastIndexOf('.');
+			sb.append(e.getKey(),0,p).append(',').append(e.getKey(),p+1,e.getKey().length()).append(',').append(e.getValue()).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Arreglo de enteros guardado fuera del heap de Java, en ByteBuffers directos
+ * o en regiones de un archivo mapeado en memoria. Como un ByteBuffer solo se puede
+ * indexar con int, el arreglo se divide en bloques de 1 GB y los indices son long,
+ * por lo que puede tener mas de 2^31 elementos.
+ */
+public class OffHeapArray {
+
+	private static final int BLOQUE_BITS=30;
+	private static final long BLOQUE=1L<<BLOQUE_BITS;
+	private static final long MASCARA=BLOQUE-1;
+
+	private final ByteBuffer[] bloques;
+	private final long bytes;
+
+	private OffHeapArray(ByteBuffer[] bloques,long bytes) {
+		this.bloques=bloques;
+		this.bytes=bytes;
+	}
+
+	/**
+	 * Funcion para reservar memoria directa (fuera del heap)
+	 * @param bytes tamano en bytes
+	 * @return arreglo en ceros
+	 */
+	public static OffHeapArray allocate(long bytes) {
+		ByteBuffer[] bloques=new ByteBuffer[(int)((bytes+BLOQUE-1)>>>BLOQUE_BITS)];
+		for(int i=0;i<bloques.length;i++) {
+			long tam=Math.min(BLOQUE,bytes-i*BLOQUE);
+			bloques[i]=ByteBuffer.allocateDirect((int)tam).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return new OffHeapArray(bloques,bytes);
+	}
+
+	/**
+	 * Funcion para mapear una region de un archivo
+	 * @param canal canal del archivo
+	 * @param posicion byte donde empieza la region
+	 * @param bytes tamano de la region
+	 * @param modo modo de mapeo (READ_ONLY o READ_WRITE)
+	 * @return arreglo respaldado por el archivo
+	 * @throws IOException si no se puede mapear el archivo
+	 */
+	public static OffHeapArray map(FileChannel canal,long posicion,long bytes,FileChannel.MapMode modo) throws IOException {
+		ByteBuffer[] bloques=new ByteBuffer[(int)((bytes+BLOQUE-1)>>>BLOQUE_BITS)];
+		for(int i=0;i<bloques.length;i++) {
+			long tam=Math.min(BLOQUE,bytes-i*BLOQUE);
+			bloques[i]=canal.map(modo,posicion+i*BLOQUE,tam).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return new OffHeapArray(bloques,bytes);
+	}
+
+	/**
+	 * Funcion para obtener el tamano del arreglo
+	 * @return tamano en bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	public int getInt(long i) {
+		long pos=i<<2;
+		return bloques[(int)(pos>>>BLOQUE_BITS)].getInt((int)(pos&MASCARA));
+	}
+
+	public void putInt(long i,int v) {
+		long pos=i<<2;
+		bloques[(int)(pos>>>BLOQUE_BITS)].putInt((int)(pos&MASCARA),v);
+	}
+
+	public long getLong(long i) {
+		long pos=i<<3;
+		return bloques[(int)(pos>>>BLOQUE_BITS)].getLong((int)(pos&MASCARA));
+	}
+
+	public void putLong(long i,long v) {
+		long pos=i<<3;
+		bloques[(int)(pos>>>BLOQUE_BITS)].putLong((int)(pos&MASCARA),v);
+	}
+
+	/**
+	 * Busqueda binaria de un entero en el rango [desde, hasta) ordenado de forma ascendente
+	 * @return indice del valor, o -1 si no esta
+	 */
+	public long binarySearchInt(long desde,long hasta,int v) {
+		long lo=desde;
+		long hi=hasta-1;
+		while(lo<=hi) {
+			long mid=(lo+hi)>>>1;
+			int x=getInt(mid);
+			if(x<v) {
+				lo=mid+1;
+			}else if(x>v) {
+				hi=mid-1;
+			}else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,330 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Grafo de solo lectura cuya adyacencia vive fuera del heap de Java, en memoria
+ * directa o en un archivo mapeado en memoria. Usa el formato CSR: los identificadores
+ * de los nodos ordenados, el inicio de la lista de vecinos de cada nodo y las listas
+ * de vecinos (ordenadas) con sus pesos. Asi el recolector de basura no tiene que
+ * recorrer millones de objetos Edge y el grafo puede ser mayor que el heap.
+ * Implementa AdjacencySource, por lo que BFS, DFS, Dijkstra y Prim pueden ejecutarse sobre el.
+ */
+public class OffHeapGraph implements AdjacencySource, Closeable {
+
+	private static final int MAGIC=0x4F484701;
+	private static final int HEADER=32;
+
+	private final boolean dirigido;
+	private final int n;
+	private final long m;
+	private final OffHeapArray ids;     //identificadores ordenados, n enteros
+	private final OffHeapArray offsets; //inicio de los vecinos de cada nodo, n+1 longs
+	private final OffHeapArray targets; //vecinos, m enteros
+	private final OffHeapArray weights; //pesos, m enteros
+	private FileChannel canal;
+
+	private OffHeapGraph(boolean dirigido,int n,long m,OffHeapArray ids,OffHeapArray offsets,OffHeapArray targets,OffHeapArray weights) {
+		this.dirigido=dirigido;
+		this.n=n;
+		this.m=m;
+		this.ids=ids;
+		this.offsets=offsets;
+		this.targets=targets;
+		this.weights=weights;
+	}
+
+	private static long alinear(long x) {
+		return (x+7)&~7L;
+	}
+
+	/**
+	 * Funcion para copiar un grafo a memoria directa
+	 * @param g grafo fuente
+	 * @return Instancia tipo OffHeapGraph
+	 */
+	public static OffHeapGraph from(AdjacencySource g) {
+		int[] orden=idsOrdenados(g);
+		long m=contarAristas(g,orden);
+		OffHeapGraph res=new OffHeapGraph(g.isDirigido(),orden.length,m,
+				OffHeapArray.allocate(orden.length*4L),
+				OffHeapArray.allocate((orden.length+1)*8L),
+				OffHeapArray.allocate(m*4),
+				OffHeapArray.allocate(m*4));
+		res.copiar(g,orden);
+		return res;
+	}
+
+	/**
+	 * Funcion para copiar un grafo a un archivo mapeado en memoria. El archivo
+	 * puede volver a abrirse despues con open.
+	 * @param g grafo fuente
+	 * @param filename nombre del archivo
+	 * @return Instancia tipo OffHeapGraph respaldada por el archivo, o null si hubo un error
+	 */
+	public static OffHeapGraph from(AdjacencySource g,String filename) {
+		int[] orden=idsOrdenados(g);
+		long m=contarAristas(g,orden);
+		int n=orden.length;
+		try {
+			FileChannel canal=FileChannel.open(Paths.get(filename),StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.READ,StandardOpenOption.WRITE);
+			ByteBuffer h=ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+			h.putInt(MAGIC).putInt(g.isDirigido() ? 1 : 0).putInt(n).putInt(0).putLong(m);
+			h.flip();
+			canal.write(h,0);
+			OffHeapGraph res=mapear(canal,g.isDirigido(),n,m,FileChannel.MapMode.READ_WRITE);
+			res.copiar(g,orden);
+			return res;
+		} catch (IOException e) {
+			System.out.println("Ha ocurrido un error al guardar el grafo: "+filename);
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Funcion para abrir un grafo guardado con from(g, filename)
+	 * @param filename nombre del archivo
+	 * @return Instancia tipo OffHeapGraph, o null si hubo un error
+	 */
+	public static OffHeapGraph open(String filename) {
+		try {
+			FileChannel canal=FileChannel.open(Paths.get(filename),StandardOpenOption.READ);
+			ByteBuffer h=ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+			canal.read(h,0);
+			h.flip();
+			if(h.getInt()!=MAGIC) {
+				canal.close();
+				System.err.println("El archivo no contiene un grafo: "+filename);
+				return null;
+			}
+			boolean dirigido=h.getInt()==1;
+			int n=h.getInt();
+			h.getInt();
+			long m=h.getLong();
+			return mapear(canal,dirigido,n,m,FileChannel.MapMode.READ_ONLY);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static OffHeapGraph mapear(FileChannel canal,boolean dirigido,int n,long m,FileChannel.MapMode modo) throws IOException {
+		long pos=HEADER;
+		OffHeapArray ids=OffHeapArray.map(canal,pos,n*4L,modo);
+		pos+=alinear(n*4L);
+		OffHeapArray offsets=OffHeapArray.map(canal,pos,(n+1)*8L,modo);
+		pos+=(n+1)*8L;
+		OffHeapArray targets=OffHeapArray.map(canal,pos,m*4,modo);
+		pos+=m*4;
+		OffHeapArray weights=OffHeapArray.map(canal,pos,m*4,modo);
+		OffHeapGraph res=new OffHeapGraph(dirigido,n,m,ids,offsets,targets,weights);
+		res.canal=canal;
+		return res;
+	}
+
+	private static int[] idsOrdenados(AdjacencySource g) {
+		int[] orden=new int[g.getSize()];
+		int i=0;
+		for (int node : g.getNodes()) {
+			orden[i++]=node;
+		}
+		Arrays.sort(orden);
+		return orden;
+	}
+
+	private static long contarAristas(AdjacencySource g,int[] orden) {
+		long m=0;
+		for (int node : orden) {
+			m+=g.getNeighbors(node).size();
+		}
+		return m;
+	}
+
+	/**
+	 * Funcion que escribe la adyacencia, nodo por nodo, con los vecinos ordenados
+	 */
+	private void copiar(AdjacencySource g,int[] orden) {
+		long k=0;
+		for(int i=0;i<n;i++) {
+			ids.putInt(i,orden[i]);
+			offsets.putLong(i,k);
+			Set<Edge> vecinos=g.getNeighbors(orden[i]);
+			long[] par=new long[vecinos.size()];
+			int j=0;
+			for (Edge e : vecinos) {
+				par[j++]=((long)e.b<<32) | (e.w & 0xffffffffL);
+			}
+			Arrays.sort(par);
+			for (long p : par) {
+				targets.putInt(k,(int)(p>>32));
+				weights.putInt(k,(int)p);
+				k++;
+			}
+		}
+		offsets.putLong(n,k);
+	}
+
+	/**
+	 * Funcion que busca el indice interno de un nodo
+	 * @return indice, o -1 si el nodo no existe
+	 */
+	private int indice(int id) {
+		return (int)ids.binarySearchInt(0,n,id);
+	}
+
+	@Override
+	public boolean isDirigido() {
+		return dirigido;
+	}
+
+	@Override
+	public int getSize() {
+		return n;
+	}
+
+	/**
+	 * Funcion para obtener la tabla de indices de los nodos: son los mismos indices internos
+	 * del grafo, que se buscan en los identificadores fuera del heap sin copiarlos
+	 * @return Instancia tipo IdMap de solo lectura
+	 */
+	@Override
+	public IdMap getIdMap() {
+		return IdMap.sorted(n,this::indice,i -> ids.getInt(i));
+	}
+
+	/**
+	 * Funcion para obtener el numero de aristas guardadas (en grafos no dirigidos cada arista cuenta dos veces)
+	 * @return numero de aristas
+	 */
+	public long getEdgeCount() {
+		return m;
+	}
+
+	@Override
+	public Set<Integer> getNodes() {
+		return new AbstractSet<Integer>() {
+			@Override
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					int i=0;
+
+					@Override
+					public boolean hasNext() {
+						return i<n;
+					}
+
+					@Override
+					public Integer next() {
+						if(i>=n) {
+							throw new NoSuchElementException();
+						}
+						return ids.getInt(i++);
+					}
+				};
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof Integer && existsNode((Integer)o);
+			}
+
+			@Override
+			public int size() {
+				return n;
+			}
+		};
+	}
+
+	@Override
+	public boolean existsNode(int id) {
+		return indice(id)>=0;
+	}
+
+	/**
+	 * Funcion para obtener el grado de salida de un nodo
+	 * @param id identificador del nodo
+	 * @return numero de vecinos, o 0 si el nodo no existe
+	 */
+	public int getDegree(int id) {
+		int i=indice(id);
+		if(i<0) {
+			return 0;
+		}
+		return (int)(offsets.getLong(i+1)-offsets.getLong(i));
+	}
+
+	/**
+	 * Funcion para recorrer los vecinos de un nodo sin crear objetos
+	 * @param id identificador del nodo
+	 * @param accion operacion que recibe (id, vecino, peso)
+	 */
+	public void forEachNeighbor(int id,IntIntIntConsumer accion) {
+		int i=indice(id);
+		if(i<0) {
+			return;
+		}
+		long fin=offsets.getLong(i+1);
+		for(long k=offsets.getLong(i);k<fin;k++) {
+			accion.accept(id,targets.getInt(k),weights.getInt(k));
+		}
+	}
+
+	/**
+	 * Funcion para obtener los vecinos de un nodo. Las aristas se crean en el heap
+	 * en cada llamada, para recorridos grandes conviene usar forEachNeighbor.
+	 */
+	@Override
+	public Set<Edge> getNeighbors(int id) {
+		int i=indice(id);
+		if(i<0) {
+			return null;
+		}
+		long ini=offsets.getLong(i);
+		long fin=offsets.getLong(i+1);
+		Set<Edge> res=new HashSet<Edge>((int)((fin-ini)*4/3)+1);
+		for(long k=ini;k<fin;k++) {
+			res.add(new Edge(id,targets.getInt(k),weights.getInt(k)));
+		}
+		return res;
+	}
+
+	@Override
+	public boolean isLinked(int a,int b) {
+		int i=indice(a);
+		return i>=0 && targets.binarySearchInt(offsets.getLong(i),offsets.getLong(i+1),b)>=0;
+	}
+
+	@Override
+	public int getW(int a,int b) {
+		int i=indice(a);
+		if(i<0) {
+			return Integer.MAX_VALUE;
+		}
+		long k=targets.binarySearchInt(offsets.getLong(i),offsets.getLong(i+1),b);
+		return k<0 ? Integer.MAX_VALUE : weights.getInt(k);
+	}
+
+	/**
+	 * Funcion para cerrar el archivo del grafo. La memoria mapeada se libera
+	 * cuando el recolector descarta la instancia.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(canal!=null) {
+			canal.close();
+			canal=null;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache LRU de arboles de recorrido (Dijkstra, BFS) de un grafo.
+ * Cada resultado se guarda con la llave (version del grafo, algoritmo, nodo raiz),
+ * asi que cualquier modificacion del grafo hace que los resultados anteriores dejen
+ * de encontrarse. El cache esta acotado por numero de entradas y por la suma de
+ * nodos de los arboles guardados; al rebasar cualquiera de los dos se descarta
+ * el resultado usado hace mas tiempo.
+ */
+public class PathCache {
+
+	private final int maxEntradas;
+	private final long maxNodos;
+	private long nodos;
+	private long hits;
+	private long misses;
+	private final LinkedHashMap<Key, Entrada> map = new LinkedHashMap<>(16,0.75f,true);
+
+	/**
+	 * Constructor del cache
+	 * @param maxEntradas numero maximo de resultados guardados
+	 * @param maxNodos suma maxima de nodos de los resultados guardados
+	 */
+	public PathCache(int maxEntradas,long maxNodos) {
+		this.maxEntradas=maxEntradas;
+		this.maxNodos=maxNodos;
+	}
+
+	/**
+	 * Funcion para buscar un resultado en el cache
+	 * @param version version del grafo fuente
+	 * @param algoritmo nombre del algoritmo
+	 * @param raiz nodo raiz del recorrido
+	 * @return el arbol guardado, o null si no esta o si fue modificado despues de guardarse
+	 */
+	public synchronized Graph get(long version,String algoritmo,int raiz) {
+		Key k=new Key(version,algoritmo,raiz);
+		Entrada e=map.get(k);
+		if(e==null) {
+			misses++;
+			return null;
+		}
+		if(e.result.getVersion()!=e.resultVersion) { //quien lo recibio modifico el arbol
+			remove(k);
+			misses++;
+			return null;
+		}
+		hits++;
+		return e.result;
+	}
+
+	/**
+	 * Funcion para guardar un resultado. Los resultados de versiones anteriores
+	 * del grafo se descartan porque ya no pueden volver a usarse.
+	 * @param version version del grafo fuente
+	 * @param algoritmo nombre del algoritmo
+	 * @param raiz nodo raiz del recorrido
+	 * @param result arbol obtenido
+	 */
+	public synchronized void put(long version,String algoritmo,int raiz,Graph result) {
+		if(result==null || result.getSize()>maxNodos) {
+			return;
+		}
+		Iterator<Map.Entry<Key, Entrada>> it=map.entrySet().iterator();
+		while(it.hasNext()) {
+			Map.Entry<Key, Entrada> e=it.next();
+			if(e.getKey().version!=version) {
+				nodos-=e.getValue().size;
+				it.remove();
+			}
+		}
+		Key k=new Key(version,algoritmo,raiz);
+		remove(k);
+		Entrada e=new Entrada(result);
+		map.put(k,e);
+		nodos+=e.size;
+		it=map.entrySet().iterator();
+		while((map.size()>maxEntradas || nodos>maxNodos) && it.hasNext()) {
+			nodos-=it.next().getValue().size;
+			it.remove();
+		}
+	}
+
+	private void remove(Key k) {
+		Entrada e=map.remove(k);
+		if(e!=null) {
+			nodos-=e.size;
+		}
+	}
+
+	/**
+	 * Funcion para vaciar el cache
+	 */
+	public synchronized void clear() {
+		map.clear();
+		nodos=0;
+	}
+
+	/**
+	 * Funcion para obtener el numero de consultas resueltas por el cache
+	 * @return numero de aciertos
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Funcion para obtener el numero de consultas que no estaban en el cache
+	 * @return numero de fallos
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Funcion para obtener el numero de resultados guardados
+	 * @return numero de entradas
+	 */
+	public synchronized int getSize() {
+		return map.size();
+	}
+
+
+	private static final class Key {
+		final long version;
+		final String algoritmo;
+		final int raiz;
+
+		Key(long version,String algoritmo,int raiz) {
+			this.version=version;
+			this.algoritmo=algoritmo;
+			this.raiz=raiz;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key c = (Key) o;
+			return version==c.version && raiz==c.raiz && algoritmo.equals(c.algoritmo);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(version,algoritmo,raiz);
+		}
+	}
+
+	private static final class Entrada {
+		final Graph result;
+		final long resultVersion;
+		final int size;
+
+		Entrada(Graph result) {
+			this.result=result;
+			this.resultVersion=result.getVersion();
+			this.size=result.getSize();
+		}
+	}
+}
@@ -0,0 +1,14 @@
+/**
+ * Operacion que recibe el avance de una tarea larga, como getKruskal_i o los generadores Barabasi.
+ * Se llama desde el hilo que ejecuta la tarea, como maximo unas cuantas veces por segundo.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+	/**
+	 * Funcion que recibe el avance
+	 * @param fraccion parte terminada de la tarea, entre 0 y 1
+	 * @param porSegundo unidades de trabajo (nodos o aristas) procesadas por segundo
+	 */
+	void progress(double fraccion,double porSegundo);
+}
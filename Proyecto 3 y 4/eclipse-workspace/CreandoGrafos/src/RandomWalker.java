@@ -0,0 +1,302 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Motor de caminatas aleatorias sobre un CSRGraph. Al construirlo se calcula una tabla alias
+ * (metodo de Vose) por nodo a partir de los pesos de sus aristas, con la que elegir un vecino
+ * con probabilidad proporcional a su peso cuesta O(1).
+ * Permite caminatas simples, caminatas sesgadas de segundo orden estilo node2vec (parametros
+ * p y q, con muestreo por rechazo sobre la tabla alias) y estimar PageRank personalizado.
+ * Las caminatas se reparten entre los nucleos; cada bloque de nodos iniciales usa su propio
+ * SplittableRandom derivado de la semilla, asi el resultado no depende del numero de hilos.
+ */
+public class RandomWalker {
+
+	private static final int BLOQUE=256; //nodos iniciales por tarea
+
+	private final CSRGraph g;
+	private final int[] ids;
+	private final int[] offsets;
+	private final int[] targets;
+	private final double[] prob;  //probabilidad de quedarse con la arista k
+	private final int[] alias;    //si no, posicion (relativa al nodo) de la arista alterna
+
+	/**
+	 * Constructor, calcula las tablas alias de todos los nodos
+	 * @param g grafo sobre el cual se camina
+	 */
+	public RandomWalker(CSRGraph g) {
+		this.g=g;
+		ids=g.getIds();
+		offsets=g.getOffsets();
+		targets=g.getTargets();
+		int[] w=g.getWeights();
+		prob=new double[targets.length];
+		alias=new int[targets.length];
+		IntStream.range(0,ids.length).parallel().forEach(i -> tablaAlias(offsets[i],offsets[i+1],w));
+	}
+
+	/**
+	 * Construye la tabla alias de las aristas ini..fin-1 con el metodo de Vose.
+	 * Los pesos negativos se toman como 0; si todos son 0 las aristas son equiprobables.
+	 */
+	private void tablaAlias(int ini,int fin,int[] w) {
+		int d=fin-ini;
+		if(d==0) {
+			return;
+		}
+		double suma=0;
+		for(int k=ini;k<fin;k++) {
+			suma+=Math.max(0,w[k]);
+		}
+		double[] p=new double[d];
+		for(int j=0;j<d;j++) {
+			p[j]= suma>0 ? Math.max(0,w[ini+j])*d/suma : 1;
+		}
+		int[] chicos=new int[d];
+		int[] grandes=new int[d];
+		int nc=0;
+		int ng=0;
+		for(int j=0;j<d;j++) {
+			if(p[j]<1) {
+				chicos[nc++]=j;
+			}else {
+				grandes[ng++]=j;
+			}
+		}
+		while(nc>0 && ng>0) {
+			int c=chicos[--nc];
+			int gr=grandes[--ng];
+			prob[ini+c]=p[c];
+			alias[ini+c]=gr;
+			p[gr]=(p[gr]+p[c])-1;
+			if(p[gr]<1) {
+				chicos[nc++]=gr;
+			}else {
+				grandes[ng++]=gr;
+			}
+		}
+		//lo que queda tiene probabilidad 1 (salvo errores de redondeo)
+		while(ng>0) {
+			int gr=grandes[--ng];
+			prob[ini+gr]=1;
+			alias[ini+gr]=gr;
+		}
+		while(nc>0) {
+			int c=chicos[--nc];
+			prob[ini+c]=1;
+			alias[ini+c]=c;
+		}
+	}
+
+	/**
+	 * Funcion para elegir un vecino al azar con probabilidad proporcional al peso de la arista
+	 * @param i indice interno del nodo
+	 * @param r generador de numeros aleatorios
+	 * @return indice interno del vecino, o -1 si el nodo no tiene vecinos
+	 */
+	public int sample(int i,SplittableRandom r) {
+		int ini=offsets[i];
+		int d=offsets[i+1]-ini;
+		if(d==0) {
+			return -1;
+		}
+		int k=ini+r.nextInt(d);
+		if(r.nextDouble()<prob[k]) {
+			return targets[k];
+		}
+		return targets[ini+alias[k]];
+	}
+
+	/**
+	 * Funcion para saber si existe la arista entre dos indices internos (busqueda binaria)
+	 */
+	private boolean enlazados(int a,int b) {
+		return Arrays.binarySearch(targets,offsets[a],offsets[a+1],b)>=0;
+	}
+
+	/**
+	 * Funcion para elegir el siguiente nodo de una caminata node2vec. Se propone un vecino con la
+	 * tabla alias y se acepta con probabilidad sesgo/sesgoMaximo, donde el sesgo es 1/p si regresa
+	 * al nodo anterior, 1 si el vecino tambien es vecino del anterior y 1/q en otro caso.
+	 */
+	private int sample(int anterior,int actual,double p,double q,double maximo,SplittableRandom r) {
+		while(true) {
+			int x=sample(actual,r);
+			if(x<0) {
+				return -1;
+			}
+			double sesgo;
+			if(x==anterior) {
+				sesgo=1/p;
+			}else if(enlazados(anterior,x)) {
+				sesgo=1;
+			}else {
+				sesgo=1/q;
+			}
+			if(r.nextDouble()*maximo<sesgo) {
+				return x;
+			}
+		}
+	}
+
+	/**
+	 * Funcion para hacer una caminata. Con p=q=1 es una caminata simple (de primer orden).
+	 * @param inicio indice interno del nodo inicial
+	 * @param largo numero maximo de nodos de la caminata
+	 * @param p parametro de regreso de node2vec
+	 * @param q parametro de entrada-salida de node2vec
+	 * @param r generador de numeros aleatorios
+	 * @param camino arreglo de al menos largo posiciones donde se guardan los indices internos visitados
+	 * @return numero de nodos de la caminata
+	 */
+	public int walk(int inicio,int largo,double p,double q,SplittableRandom r,int[] camino) {
+		boolean simple= p==1 && q==1;
+		double maximo=Math.max(1/p,Math.max(1,1/q));
+		camino[0]=inicio;
+		int l=1;
+		while(l<largo) {
+			int x= (simple || l==1) ? sample(camino[l-1],r) : sample(camino[l-2],camino[l-1],p,q,maximo,r);
+			if(x<0) {
+				break;
+			}
+			camino[l++]=x;
+		}
+		return l;
+	}
+
+	/**
+	 * Funcion para generar caminatas simples desde todos los nodos
+	 * @see #walks(int, int, double, double, long, WalkSink)
+	 */
+	public long walks(int porNodo,int largo,long semilla,WalkSink sink) {
+		return walks(porNodo,largo,1,1,semilla,sink);
+	}
+
+	/**
+	 * Funcion para generar caminatas desde todos los nodos en paralelo y enviarlas a un WalkSink
+	 * conforme se generan. Los caminos se envian con los identificadores de los nodos.
+	 * @param porNodo numero de caminatas que empiezan en cada nodo
+	 * @param largo numero maximo de nodos de cada caminata
+	 * @param p parametro de regreso de node2vec (1 para caminatas simples)
+	 * @param q parametro de entrada-salida de node2vec (1 para caminatas simples)
+	 * @param semilla semilla de los numeros aleatorios
+	 * @param sink destino de las caminatas, se llama desde varios hilos
+	 * @return numero total de pasos dados
+	 */
+	public long walks(int porNodo,int largo,double p,double q,long semilla,WalkSink sink) {
+		if(p<=0 || q<=0 || largo<1) {
+			System.err.println("Los parametros p, q y largo deben ser positivos");
+			return 0;
+		}
+		long inicio=Metrics.start();
+		int n=ids.length;
+		int bloques=(n+BLOQUE-1)/BLOQUE;
+		SplittableRandom raiz=new SplittableRandom(semilla);
+		SplittableRandom[] generadores=new SplittableRandom[bloques];
+		for(int b=0;b<bloques;b++) {
+			generadores[b]=raiz.split();
+		}
+		long pasos=IntStream.range(0,bloques).parallel().mapToLong(b -> {
+			SplittableRandom r=generadores[b];
+			int[] camino=new int[largo];
+			long total=0;
+			int fin=Math.min(n,(b+1)*BLOQUE);
+			for(int c=0;c<porNodo;c++) {
+				for(int i=b*BLOQUE;i<fin;i++) {
+					int l=walk(i,largo,p,q,r,camino);
+					total+=l-1;
+					for(int j=0;j<l;j++) {
+						camino[j]=ids[camino[j]];
+					}
+					sink.accept(camino,l);
+				}
+			}
+			return total;
+		}).sum();
+		Metrics.count("RandomWalker","caminatas",(long)n*porNodo);
+		Metrics.count("RandomWalker","pasos",pasos);
+		Metrics.time("RandomWalker",inicio);
+		return pasos;
+	}
+
+	/**
+	 * Funcion para estimar el PageRank personalizado de un nodo con caminatas con reinicio:
+	 * en cada paso la caminata termina con probabilidad alfa, y el nodo donde termina es una
+	 * muestra de la distribucion. Si llega a un nodo sin vecinos regresa a la fuente.
+	 * @param fuente identificador del nodo fuente
+	 * @param alfa probabilidad de reinicio, entre 0 y 1 (por ejemplo 0.15)
+	 * @param caminatas numero de caminatas; el error estandar de cada valor es menor a 1/(2*sqrt(caminatas))
+	 * @param semilla semilla de los numeros aleatorios
+	 * @return arreglo indexado por indice interno del grafo (ver CSRGraph.getId), o null si la fuente no existe
+	 */
+	public double[] personalizedPageRank(int fuente,double alfa,int caminatas,long semilla) {
+		int s=g.indexOf(fuente);
+		if(s<0) {
+			System.err.println("El nodo fuente no existe");
+			return null;
+		}
+		if(alfa<=0 || alfa>1) {
+			System.err.println("alfa debe estar entre 0 y 1");
+			return null;
+		}
+		long inicio=Metrics.start();
+		int n=ids.length;
+		int tareas=Math.max(1,Math.min(Runtime.getRuntime().availableProcessors()*4,caminatas/1024));
+		SplittableRandom raiz=new SplittableRandom(semilla);
+		SplittableRandom[] generadores=new SplittableRandom[tareas];
+		for(int t=0;t<tareas;t++) {
+			generadores[t]=raiz.split();
+		}
+		//contadores por hilo y no por tarea: cada tarea toma uno libre y lo devuelve al terminar,
+		//asi que se crean a lo mas tantos arreglos de n como tareas corren a la vez
+		ConcurrentLinkedQueue<long[]> cuenta=new ConcurrentLinkedQueue<>();
+		long[] pasos=new long[tareas];
+		IntStream.range(0,tareas).parallel().forEach(t -> {
+			SplittableRandom r=generadores[t];
+			long[] c=cuenta.poll();
+			if(c==null) {
+				c=new long[n];
+			}
+			int desde=(int)((long)caminatas*t/tareas);
+			int hasta=(int)((long)caminatas*(t+1)/tareas);
+			for(int k=desde;k<hasta;k++) {
+				int x=s;
+				while(r.nextDouble()>=alfa) {
+					int y=sample(x,r);
+					x= y<0 ? s : y;
+					pasos[t]++;
+				}
+				c[x]++;
+			}
+			cuenta.add(c);
+		});
+		double[] res=new double[n];
+		for (long[] c : cuenta) {
+			for(int i=0;i<n;i++) {
+				res[i]+=c[i];
+			}
+		}
+		long total=0;
+		for (long p : pasos) {
+			total+=p;
+		}
+		for(int i=0;i<n;i++) {
+			res[i]/=caminatas;
+		}
+		Metrics.count("RandomWalker","caminatas",caminatas);
+		Metrics.count("RandomWalker","pasos",total);
+		Metrics.time("RandomWalker",inicio);
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el grafo sobre el que se camina
+	 * @return Instancia tipo CSRGraph
+	 */
+	public CSRGraph getGraph() {
+		return g;
+	}
+}
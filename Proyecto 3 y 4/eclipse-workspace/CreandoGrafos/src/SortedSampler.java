@@ -0,0 +1,139 @@
+import java.util.Random;
+
+/**
+ * Muestreo secuencial sin reemplazo: elige cantidad indices distintos de 0..total-1, todos los
+ * subconjuntos con la misma probabilidad, y los regresa en orden ascendente uno por uno.
+ * Usa el metodo D de Vitter ("An efficient algorithm for sequential random sampling", 1987):
+ * en lugar de recorrer los indices, sortea directamente cuantos se saltan antes del siguiente
+ * elegido, asi que el tiempo esperado es O(cantidad) y la memoria es constante. Cuando quedan
+ * pocos indices por recorrer respecto a los que faltan elegir se cambia al metodo A, que recorre
+ * los saltos de uno en uno.
+ */
+public class SortedSampler {
+
+	private static final int ALFA_INV=13; //se usa el metodo D mientras restantes > ALFA_INV*faltan
+
+	private final Random r;
+	private long siguiente; //indice del primer registro aun no recorrido
+	private long restantes; //registros aun no recorridos
+	private long faltan;    //indices que faltan por elegir
+	private double vprima;  //variable aleatoria del metodo D que se reutiliza entre llamadas
+
+	/**
+	 * Constructor
+	 * @param total numero de indices posibles
+	 * @param cantidad numero de indices a elegir, entre 0 y total
+	 * @param r generador de numeros aleatorios
+	 */
+	public SortedSampler(long total,long cantidad,Random r) {
+		this.r=r;
+		restantes=total;
+		faltan=Math.max(0,Math.min(cantidad,total));
+		if(faltan>0) {
+			vprima=Math.exp(Math.log(uniforme())/faltan);
+		}
+	}
+
+	/**
+	 * Funcion para obtener el siguiente indice elegido
+	 * @return indice mayor a todos los anteriores, o -1 si ya se eligieron todos
+	 */
+	public long next() {
+		if(faltan==0) {
+			return -1;
+		}
+		long s;
+		if(faltan==1) {
+			s=Math.min(restantes-1,(long)(uniforme()*restantes));
+		}else if((long)ALFA_INV*faltan<restantes) {
+			s=saltoD();
+		}else {
+			s=saltoA();
+		}
+		long res=siguiente+s;
+		siguiente=res+1;
+		restantes-=s+1;
+		faltan--;
+		return res;
+	}
+
+	/**
+	 * Funcion para saber cuantos indices faltan por elegir
+	 * @return indices restantes
+	 */
+	public long remaining() {
+		return faltan;
+	}
+
+	/**
+	 * Metodo D: sortea el salto con una distribucion continua que lo acota y lo acepta o rechaza
+	 * comparando con la distribucion exacta
+	 */
+	private long saltoD() {
+		double nmin1inv=1.0/(faltan-1);
+		long qu1=restantes-faltan+1;
+		while(true) {
+			double x;
+			long s;
+			while(true) {
+				x=restantes*(1-vprima);
+				s=(long)x;
+				if(s<qu1) {
+					break;
+				}
+				vprima=Math.exp(Math.log(uniforme())/faltan);
+			}
+			double y1=Math.exp(Math.log(uniforme()*restantes/qu1)*nmin1inv);
+			vprima=y1*(1-x/restantes)*((double)qu1/(qu1-s));
+			if(vprima<=1) { //aceptado por la prueba rapida; vprima sirve para el siguiente salto
+				return s;
+			}
+			double y2=1;
+			double arriba=restantes-1;
+			double abajo;
+			long limite;
+			if(faltan-1>s) {
+				abajo=restantes-faltan;
+				limite=restantes-s;
+			}else {
+				abajo=restantes-s-1;
+				limite=qu1;
+			}
+			for(long t=restantes-1;t>=limite;t--) {
+				y2=y2*arriba/abajo;
+				arriba--;
+				abajo--;
+			}
+			if(restantes/(restantes-x)>=y1*Math.exp(Math.log(y2)*nmin1inv)) {
+				vprima=Math.exp(Math.log(uniforme())*nmin1inv);
+				return s;
+			}
+			vprima=Math.exp(Math.log(uniforme())/faltan);
+		}
+	}
+
+	/**
+	 * Metodo A: avanza el salto mientras la probabilidad de seguir saltando supere un uniforme
+	 */
+	private long saltoA() {
+		double arriba=restantes-faltan;
+		double nreal=restantes;
+		double v=r.nextDouble();
+		long s=0;
+		double cociente=arriba/nreal;
+		while(cociente>v) {
+			s++;
+			arriba--;
+			nreal--;
+			cociente=cociente*arriba/nreal;
+		}
+		return s;
+	}
+
+	/**
+	 * Uniforme en (0,1], para poder sacarle logaritmo
+	 */
+	private double uniforme() {
+		return 1-r.nextDouble();
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Auxiliar de las operaciones largas que combina un CancellationToken y un ProgressListener.
+ * step se llama en cada iteracion del ciclo principal y solo cada cierto numero de pasos
+ * revisa el token y el reloj, asi el costo en el ciclo es un incremento y una comparacion.
+ */
+final class TaskControl {
+
+	private static final long INTERVALO_REPORTE=200000000L; //200 ms entre reportes de avance
+
+	private final CancellationToken token;
+	private final ProgressListener listener;
+	private final long total;
+	private final int mascara;
+	private final Runnable alCancelar;
+	private long pasos;
+	private long inicio;
+	private long ultimoReporte;
+
+	/**
+	 * Constructor
+	 * @param token token de cancelacion, puede ser null
+	 * @param listener receptor del avance, puede ser null
+	 * @param total numero de pasos de la tarea
+	 * @param intervalo se revisa el token cada 2^intervalo pasos
+	 * @param alCancelar operacion que se ejecuta antes de lanzar CancelledException, puede ser null
+	 */
+	TaskControl(CancellationToken token,ProgressListener listener,long total,int intervalo,Runnable alCancelar) {
+		this.token=token;
+		this.alCancelar=alCancelar;
+		this.listener=listener;
+		this.total=Math.max(1,total);
+		this.mascara=(1<<intervalo)-1;
+		inicio=System.nanoTime();
+		ultimoReporte=inicio;
+	}
+
+	/**
+	 * Funcion para avisar que se termino un paso
+	 */
+	void step() {
+		if((++pasos & mascara)==0) {
+			check();
+		}
+	}
+
+	/**
+	 * Funcion para revisar el token y reportar el avance sin esperar al intervalo
+	 */
+	void check() {
+		if(token!=null && token.isCancelled()) {
+			if(alCancelar!=null) {
+				alCancelar.run();
+			}
+			token.throwIfCancelled();
+		}
+		if(listener!=null) {
+			long t=System.nanoTime();
+			if(t-ultimoReporte>=INTERVALO_REPORTE) {
+				ultimoReporte=t;
+				listener.progress(Math.min(1.0,(double)pasos/total),pasos*1e9/Math.max(1,t-inicio));
+			}
+		}
+	}
+
+	/**
+	 * Funcion para reportar el fin de la tarea
+	 */
+	void done() {
+		if(listener!=null) {
+			listener.progress(1.0,pasos*1e9/Math.max(1,System.nanoTime()-inicio));
+		}
+	}
+}
@@ -0,0 +1,357 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Conteo de triangulos y coeficientes de agrupamiento (clustering) sobre un CSRGraph.
+ * Cada arista se orienta del nodo de menor grado al de mayor grado (desempatando por indice),
+ * asi cada triangulo se encuentra una sola vez y ningun nodo tiene mas de O(sqrt(m)) vecinos
+ * hacia adelante. Para cada arista u-&gt;v se intersectan las listas ordenadas de u y v: por mezcla
+ * si tienen tamanos parecidos, o con busqueda galopante si una es mucho mayor.
+ * Los nodos se reparten entre los hilos, cada uno con su propio contador por nodo.
+ * Para grafos muy grandes, approximateGlobalClustering estima el coeficiente global
+ * muestreando cunas (caminos de dos aristas) al azar.
+ * Las direcciones y los lazos se ignoran: se trabaja sobre el grafo simple no dirigido.
+ */
+public class Triangles {
+
+	private static final int BLOQUE=64;     //nodos por tarea
+	private static final int GALOPE=16;     //razon de tamanos a partir de la cual se galopa
+
+	private final CSRGraph g;
+	private final int n;
+	private final int[] off;  //vecinos sin lazos, ordenados por indice
+	private final int[] tg;
+	private final int[] adelanteOff; //vecinos de mayor rango
+	private final int[] adelante;
+	private long[] locales;
+	private long triangulos=-1;
+
+	/**
+	 * Constructor que copia el grafo a formato CSR
+	 * @param g grafo
+	 */
+	public Triangles(AdjacencySource g) {
+		this(g instanceof CSRGraph ? (CSRGraph)g : CSRGraph.from(g));
+	}
+
+	/**
+	 * Constructor
+	 * @param g grafo en formato CSR
+	 */
+	public Triangles(CSRGraph g) {
+		if(g.isDirigido()) {
+			g=noDirigido(g);
+		}
+		this.g=g;
+		n=g.getSize();
+		int[] o=g.getOffsets();
+		int[] t=g.getTargets();
+		//lista de vecinos sin lazos
+		off=new int[n+1];
+		int[] sin=new int[t.length];
+		int k=0;
+		for(int i=0;i<n;i++) {
+			for(int j=o[i];j<o[i+1];j++) {
+				if(t[j]!=i) {
+					sin[k++]=t[j];
+				}
+			}
+			off[i+1]=k;
+		}
+		tg= k==t.length ? sin : Arrays.copyOf(sin,k);
+		//orientacion por grado; como tg esta ordenado por indice, cada sublista tambien
+		adelanteOff=new int[n+1];
+		int[] ad=new int[k/2+1];
+		k=0;
+		for(int u=0;u<n;u++) {
+			for(int j=off[u];j<off[u+1];j++) {
+				if(antes(u,tg[j])) {
+					ad[k++]=tg[j];
+				}
+			}
+			adelanteOff[u+1]=k;
+		}
+		adelante=ad;
+	}
+
+	private static CSRGraph noDirigido(CSRGraph g) {
+		int[] ids=g.getIds();
+		int[] o=g.getOffsets();
+		int[] t=g.getTargets();
+		GraphBuilder b=new GraphBuilder(false,t.length);
+		for(int i=0;i<ids.length;i++) {
+			b.addNode(ids[i]);
+			for(int j=o[i];j<o[i+1];j++) {
+				b.addEdge(ids[i],ids[t[j]],1);
+			}
+		}
+		return b.build();
+	}
+
+	private int grado(int v) {
+		return off[v+1]-off[v];
+	}
+
+	/**
+	 * Orden de los nodos: primero por grado y despues por indice
+	 */
+	private boolean antes(int u,int v) {
+		int du=grado(u);
+		int dv=grado(v);
+		return du<dv || (du==dv && u<v);
+	}
+
+	/**
+	 * Funcion para contar los triangulos del grafo. Tambien calcula cuantos triangulos toca
+	 * cada nodo, que usan los coeficientes de agrupamiento.
+	 * @return numero de triangulos
+	 */
+	public long count() {
+		if(triangulos>=0) {
+			return triangulos;
+		}
+		long inicio=Metrics.start();
+		int hilos=Math.max(1,Runtime.getRuntime().availableProcessors());
+		AtomicInteger siguiente=new AtomicInteger();
+		long[][] parciales=new long[hilos][];
+		long[] totales=new long[hilos];
+		IntStream.range(0,hilos).parallel().forEach(h -> {
+			long[] t=new long[n];
+			long total=0;
+			int b;
+			while((b=siguiente.getAndAdd(BLOQUE))<n) {
+				int fin=Math.min(n,b+BLOQUE);
+				for(int u=b;u<fin;u++) {
+					for(int j=adelanteOff[u];j<adelanteOff[u+1];j++) {
+						int v=adelante[j];
+						total+=intersectar(u,v,t);
+					}
+				}
+			}
+			parciales[h]=t;
+			totales[h]=total;
+		});
+		locales=new long[n];
+		long total=0;
+		for(int h=0;h<hilos;h++) {
+			for(int v=0;v<n;v++) {
+				locales[v]+=parciales[h][v];
+			}
+			total+=totales[h];
+		}
+		triangulos=total;
+		Metrics.count("Triangles","triangulos",total);
+		Metrics.count("Triangles","intersecciones",adelante.length);
+		Metrics.time("Triangles",inicio);
+		return total;
+	}
+
+	/**
+	 * Intersecta las listas hacia adelante de u y v (u antes que v). Cada w comun forma el
+	 * triangulo u, v, w, que se suma a los tres nodos.
+	 * @return numero de triangulos encontrados
+	 */
+	private long intersectar(int u,int v,long[] t) {
+		int i=adelanteOff[u];
+		int fi=adelanteOff[u+1];
+		int j=adelanteOff[v];
+		int fj=adelanteOff[v+1];
+		long c=0;
+		if(fi-i>GALOPE*(fj-j) || fj-j>GALOPE*(fi-i)) {
+			//galope: se busca cada elemento de la lista chica en la grande
+			if(fi-i>fj-j) {
+				int tmp=i;
+				i=j;
+				j=tmp;
+				tmp=fi;
+				fi=fj;
+				fj=tmp;
+			}
+			for(;i<fi && j<fj;i++) {
+				int x=adelante[i];
+				int paso=1;
+				int lim=j;
+				while(lim<fj && adelante[lim]<x) {
+					j=lim+1;
+					lim=j+paso;
+					paso<<=1;
+				}
+				int k=Arrays.binarySearch(adelante,j,Math.min(lim+1,fj),x);
+				if(k>=0) {
+					t[u]++;
+					t[v]++;
+					t[x]++;
+					c++;
+					j=k+1;
+				}else {
+					j=-k-1;
+				}
+			}
+		}else {
+			while(i<fi && j<fj) {
+				int a=adelante[i];
+				int b=adelante[j];
+				if(a<b) {
+					i++;
+				}else if(a>b) {
+					j++;
+				}else {
+					t[u]++;
+					t[v]++;
+					t[a]++;
+					c++;
+					i++;
+					j++;
+				}
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Funcion para obtener cuantos triangulos toca cada nodo
+	 * @return arreglo por indice interno
+	 */
+	public long[] getLocalTriangles() {
+		count();
+		return locales;
+	}
+
+	/**
+	 * Funcion para obtener el numero de cunas (pares de aristas con un nodo en comun), suma de d(d-1)/2
+	 * @return numero de cunas
+	 */
+	public long getWedges() {
+		long w=0;
+		for(int v=0;v<n;v++) {
+			long d=grado(v);
+			w+=d*(d-1)/2;
+		}
+		return w;
+	}
+
+	/**
+	 * Funcion para calcular el coeficiente de agrupamiento de cada nodo: triangulos del nodo entre
+	 * pares de vecinos posibles, 2t/(d(d-1)). Los nodos con menos de dos vecinos tienen 0.
+	 * @return coeficiente de cada nodo por indice interno
+	 */
+	public double[] localClustering() {
+		count();
+		double[] c=new double[n];
+		for(int v=0;v<n;v++) {
+			long d=grado(v);
+			c[v]= d<2 ? 0 : 2.0*locales[v]/(d*(d-1));
+		}
+		return c;
+	}
+
+	/**
+	 * Funcion para calcular el promedio de los coeficientes de agrupamiento locales
+	 * @return coeficiente promedio, o 0 si no hay nodos
+	 */
+	public double averageClustering() {
+		double s=0;
+		for (double c : localClustering()) {
+			s+=c;
+		}
+		return n==0 ? 0 : s/n;
+	}
+
+	/**
+	 * Funcion para calcular el coeficiente de agrupamiento global (transitividad): 3 veces los
+	 * triangulos entre el numero de cunas
+	 * @return coeficiente global, o 0 si no hay cunas
+	 */
+	public double globalClustering() {
+		long w=getWedges();
+		return w==0 ? 0 : 3.0*count()/w;
+	}
+
+	/**
+	 * Funcion para estimar el coeficiente de agrupamiento global sin contar los triangulos: se eligen
+	 * cunas al azar (el centro con probabilidad proporcional a su numero de cunas y dos vecinos
+	 * distintos) y se cuenta que fraccion esta cerrada. Por la desigualdad de Hoeffding, con
+	 * k = ln(2/delta)/(2 epsilon^2) cunas el error es menor a epsilon con probabilidad al menos 1-delta.
+	 * El numero de triangulos puede estimarse como coeficiente*getWedges()/3.
+	 * @param epsilon error absoluto maximo
+	 * @param delta probabilidad de superar el error
+	 * @param semilla semilla de los numeros aleatorios
+	 * @return coeficiente global estimado
+	 */
+	public double approximateGlobalClustering(double epsilon,double delta,long semilla) {
+		if(epsilon<=0 || delta<=0 || delta>=1) {
+			System.err.println("epsilon debe ser positivo y delta debe estar entre 0 y 1");
+			return Double.NaN;
+		}
+		long inicio=Metrics.start();
+		long[] acumulado=new long[n+1]; //cunas acumuladas antes de cada nodo
+		for(int v=0;v<n;v++) {
+			long d=grado(v);
+			acumulado[v+1]=acumulado[v]+d*(d-1)/2;
+		}
+		long cunas=acumulado[n];
+		if(cunas==0) {
+			return 0;
+		}
+		long k=(long)Math.ceil(Math.log(2/delta)/(2*epsilon*epsilon));
+		int tareas=(int)Math.max(1,Math.min(Runtime.getRuntime().availableProcessors()*4,k/1024));
+		SplittableRandom raiz=new SplittableRandom(semilla);
+		SplittableRandom[] generadores=new SplittableRandom[tareas];
+		for(int t=0;t<tareas;t++) {
+			generadores[t]=raiz.split();
+		}
+		long cerradas=IntStream.range(0,tareas).parallel().mapToLong(t -> {
+			SplittableRandom r=generadores[t];
+			long c=0;
+			long desde=k*t/tareas;
+			long hasta=k*(t+1)/tareas;
+			for(long s=desde;s<hasta;s++) {
+				long x=r.nextLong(cunas);
+				int v=Arrays.binarySearch(acumulado,x);
+				v= v>=0 ? v : -v-2;
+				while(acumulado[v+1]<=x) { //nodos con menos de dos vecinos repiten el valor acumulado
+					v++;
+				}
+				int d=grado(v);
+				int a=r.nextInt(d);
+				int b=r.nextInt(d-1);
+				if(b>=a) {
+					b++;
+				}
+				int x1=tg[off[v]+a];
+				int x2=tg[off[v]+b];
+				if(Arrays.binarySearch(tg,off[x1],off[x1+1],x2)>=0) {
+					c++;
+				}
+			}
+			return c;
+		}).sum();
+		Metrics.count("TrianglesAprox","cunas",k);
+		Metrics.time("TrianglesAprox",inicio);
+		return (double)cerradas/k;
+	}
+
+	/**
+	 * Funcion para traducir un resultado a los identificadores de los nodos
+	 * @param valores valor de cada indice interno
+	 * @return mapa identificador -&gt; valor
+	 */
+	public HashMap<Integer, Double> toMap(double[] valores) {
+		HashMap<Integer, Double> res=new HashMap<>();
+		for(int i=0;i<n;i++) {
+			res.put(g.getId(i),valores[i]);
+		}
+		return res;
+	}
+
+	/**
+	 * Funcion para obtener el grafo sobre el que se calcula (no dirigido)
+	 * @return Instancia tipo CSRGraph
+	 */
+	public CSRGraph getGraph() {
+		return g;
+	}
+}
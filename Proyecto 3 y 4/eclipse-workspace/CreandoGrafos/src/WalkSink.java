@@ -0,0 +1,16 @@
+/**
+ * Destino de las caminatas aleatorias que genera RandomWalker.
+ * Se llama desde varios hilos a la vez, por lo que la implementacion debe ser segura
+ * entre hilos (o sincronizarse).
+ */
+@FunctionalInterface
+public interface WalkSink {
+
+	/**
+	 * Funcion que recibe una caminata. El arreglo se reutiliza para la siguiente caminata
+	 * del mismo hilo, si se quiere conservar hay que copiarlo.
+	 * @param camino identificadores de los nodos visitados, empezando por el nodo inicial
+	 * @param largo numero de nodos de la caminata (puede ser menor al pedido si llego a un nodo sin vecinos)
+	 */
+	void accept(int[] camino,int largo);
+}